@@ -2,6 +2,8 @@ package org.alfresco.genai;
 
 import org.alfresco.genai.action.AiApplierAction;
 import org.alfresco.genai.action.AiApplierActionFactory;
+import org.alfresco.genai.service.NodeUpdateService;
+import org.alfresco.genai.service.ProcessingStatusService;
 import org.alfresco.search.handler.SearchApi;
 import org.alfresco.search.model.*;
 import org.slf4j.Logger;
@@ -70,6 +72,18 @@ public class AiApplierApplication implements CommandLineRunner {
     @Autowired
     SearchApi searchApi;
 
+    /**
+     * Http client for updating Alfresco document nodes, which receives the aspects and properties included in search results
+     */
+    @Autowired
+    NodeUpdateService nodeUpdateService;
+
+    /**
+     * Service keeping the processing status of nodes, to skip the nodes taken by other processes
+     */
+    @Autowired
+    ProcessingStatusService processingStatusService;
+
     /**
      * List to keep track of updated document nodes to avoid redundant updates
      */
@@ -83,6 +97,7 @@ public class AiApplierApplication implements CommandLineRunner {
     public void run(String... args) {
 
         AiApplierAction action = aiApplierActionFactory.getAiApplierAction(actionName);
+        String operation = actionName.getOperation();
 
         RequestSortDefinition sortDefinition = new RequestSortDefinition();
         sortDefinition.add(new RequestSortDefinitionInner()
@@ -90,17 +105,24 @@ public class AiApplierApplication implements CommandLineRunner {
                 .field("id")
                 .ascending(true));
 
+        RequestInclude include = new RequestInclude();
+        include.add("aspectNames");
+        include.add("properties");
+
         boolean hasMoreItems;
 
         do {
 
-            System.out.println("PATH:\"" + folder + "//*\" AND TYPE:\"cm:content\" AND NOT EXISTS:\"" + action.getUpdateField() + "\"");
+            String query = "PATH:\"" + folder + "//*\" AND TYPE:\"cm:content\" AND NOT EXISTS:\"" + action.getUpdateField() + "\"" +
+                    " AND " + processingStatusService.getInFlightExclusion(operation);
+            System.out.println(query);
 
             ResponseEntity<ResultSetPaging> results = searchApi.search(
                     new SearchRequest()
                             .query(new RequestQuery()
                                     .language(RequestQuery.LanguageEnum.AFTS)
-                                    .query("PATH:\"" + folder + "//*\" AND TYPE:\"cm:content\" AND NOT EXISTS:\"" + action.getUpdateField() + "\""))
+                                    .query(query))
+                            .include(include)
                             .sort(sortDefinition)
                             .paging(new RequestPagination().maxItems(maxItems).skipCount(0)));
 
@@ -114,15 +136,36 @@ public class AiApplierApplication implements CommandLineRunner {
 
                 String uuid = entry.getEntry().getId();
 
+                // Skip documents not supported by the action before taking them, so their status is not updated
+                if (!action.isSupported(action.getMimeType(entry))) {
+                    LOG.debug("Document {} is not supported by {}", entry.getEntry().getName(), actionName);
+                    return;
+                }
+
                 // Fix SOLR latency to catch up with node updates in Repository
                 if (!updatedNodes.contains(uuid)) {
-                    if (action.execute(entry)) {
-                        updatedNodes.add(uuid);
+                    nodeUpdateService.setAspectNames(uuid, entry.getEntry().getAspectNames());
+                    nodeUpdateService.setProperties(uuid, entry.getEntry().getProperties());
+                    if (processingStatusService.start(uuid, operation, entry.getEntry().getProperties())) {
+                        try {
+                            if (action.execute(entry)) {
+                                updatedNodes.add(uuid);
+                                processingStatusService.finish(uuid, operation, ProcessingStatusService.DONE);
+                            } else {
+                                processingStatusService.finish(uuid, operation, ProcessingStatusService.PENDING);
+                            }
+                        } catch (RuntimeException e) {
+                            processingStatusService.finish(uuid, operation, ProcessingStatusService.FAILED);
+                            throw e;
+                        }
                     }
                 }
 
             });
 
+            // Write the buffered updates before searching again, so processed nodes are not returned by the next search
+            nodeUpdateService.flush();
+
             Instant finish = Instant.now();
             LOG.debug(">> {} seconds spent in this iteration", Duration.between(start, finish).toSeconds());
 
@@ -12,7 +12,17 @@ public interface AiApplierAction {
      * Enumeration of supported AI actions.
      */
     enum Action {
-        SUMMARY, CLASSIFY, DESCRIBE, ENTITYLINKWIKIDATA, ENTITYLINKDBPEDIA
+        SUMMARY, CLASSIFY, DESCRIBE, ENTITYLINKWIKIDATA, ENTITYLINKDBPEDIA;
+
+        /**
+         * Gets the operation family of the action shared with the AI Listener, which keys the processing status
+         * stored in the nodes.
+         *
+         * @return The name of the operation family.
+         */
+        public String getOperation() {
+            return this == DESCRIBE ? "DESCRIPTION" : name();
+        }
     }
 
     /**
@@ -29,5 +39,26 @@ public interface AiApplierAction {
      * @return The name of the field updated by the AI action.
      */
     String getUpdateField();
+
+    /**
+     * Checks if the AI action can be applied to documents of a MIME type, so unsupported documents are skipped
+     * before they are taken for processing. Pictures are only supported by the description action.
+     *
+     * @param mimeType The MIME type of the document content.
+     * @return {@code true} if the action supports the document; otherwise, {@code false}.
+     */
+    default boolean isSupported(String mimeType) {
+        return !mimeType.contains("image");
+    }
+
+    /**
+     * Retrieves the MIME type of the document from the search result, so the node doesn't need to be read again.
+     *
+     * @param entry The entry representing an Alfresco document.
+     * @return The MIME type of the document content, or an empty string if the node has no content.
+     */
+    default String getMimeType(ResultSetRowEntry entry) {
+        return entry.getEntry().getContent() == null ? "" : entry.getEntry().getContent().getMimeType();
+    }
     
 }
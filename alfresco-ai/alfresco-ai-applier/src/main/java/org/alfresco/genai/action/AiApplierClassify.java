@@ -1,6 +1,5 @@
 package org.alfresco.genai.action;
 
-import org.alfresco.core.handler.NodesApi;
 import org.alfresco.genai.service.GenAiClient;
 import org.alfresco.genai.service.NodeUpdateService;
 import org.alfresco.genai.service.RenditionService;
@@ -11,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.File;
 import java.io.IOException;
 
 
@@ -23,12 +23,6 @@ public class AiApplierClassify implements AiApplierAction {
 
     static final Logger LOG = LoggerFactory.getLogger(AiApplierClassify.class);
 
-    /**
-     * Autowired instance of {@link NodesApi} for communication with the Alfresco Nodes API.
-     */
-    @Autowired
-    NodesApi nodesApi;
-    
     /**
      * The property name for storing the term content in the Alfresco repository obtained from configuration.
      */
@@ -71,17 +65,19 @@ public class AiApplierClassify implements AiApplierAction {
 
         String uuid = entry.getEntry().getId();
 
-        if (getMimeType(uuid).contains("image")) {
-			LOG.debug("Document {} is an image, classification is not supported", entry.getEntry().getName());
-			return false;
-		}
-        
+        String mimeType = getMimeType(entry);
+
         LOG.debug("Selecting term for document {} ({})", entry.getEntry().getName(), uuid);
 
-        if (renditionService.pdfRenditionIsCreated(uuid)) {
+        boolean renditionBypassed = renditionService.isRenditionBypassed(mimeType);
+
+        if (renditionBypassed || renditionService.pdfRenditionIsCreated(uuid)) {
 
             try {
-                nodeUpdateService.updateNodeTerm(uuid, genAiClient.getTerm(renditionService.getRenditionContent(uuid), termList));
+                File file = renditionBypassed ? renditionService.getNodeContent(uuid) : renditionService.getRenditionContent(uuid);
+                String fileMimeType = renditionBypassed ? mimeType : RenditionService.PDF_MIME_TYPE;
+                nodeUpdateService.updateNodeTerm(uuid, genAiClient.getTerm(file, fileMimeType, termList),
+                        renditionService.getContentHash(uuid, renditionBypassed ? file : null));
                 LOG.debug("Document {} has been updated with term and tag", entry.getEntry().getName());
                 return true;
                 
@@ -108,8 +104,4 @@ public class AiApplierClassify implements AiApplierAction {
         return termProperty;
     }
 
-    public String getMimeType(String uuid) {
-    	return nodesApi.getNode(uuid, null, null, null).getBody().getEntry().getContent().getMimeType();
-    }    
-    
 }
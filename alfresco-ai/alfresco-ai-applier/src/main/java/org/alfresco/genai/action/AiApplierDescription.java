@@ -1,7 +1,9 @@
 package org.alfresco.genai.action;
 
-import org.alfresco.core.handler.NodesApi;
+import org.alfresco.genai.model.Description;
+import org.alfresco.genai.service.DescriptionIndex;
 import org.alfresco.genai.service.GenAiClient;
+import org.alfresco.genai.service.ImageService;
 import org.alfresco.genai.service.NodeUpdateService;
 import org.alfresco.genai.service.RenditionService;
 import org.alfresco.search.model.ResultSetRowEntry;
@@ -13,7 +15,6 @@ import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 
 /**
  * The {@code AiApplierDescription} class is a Spring component that implements the {@link AiApplierAction} interface
@@ -48,8 +49,17 @@ public class AiApplierDescription implements AiApplierAction {
     @Autowired
     NodeUpdateService nodeUpdateService;
 
+    /**
+     * Service for downsizing pictures before sending them to the GenAI service
+     */
     @Autowired
-    NodesApi nodesApi;
+    ImageService imageService;
+
+    /**
+     * Index of described pictures for reusing the description of near-duplicate pictures
+     */
+    @Autowired
+    DescriptionIndex descriptionIndex;
 
     /**
      * Executes the picture description action on the given {@code ResultSetRowEntry}.
@@ -63,20 +73,25 @@ public class AiApplierDescription implements AiApplierAction {
 
         String uuid = entry.getEntry().getId();
 
-        if (!getMimeType(uuid).contains("image")) {
-			LOG.debug("Document {} is not an image, description is not supported", entry.getEntry().getName());
-			return false;
-		}
-        
         LOG.debug("Describing picture {} ({})", entry.getEntry().getName(), uuid);
 
+        File pictureFile = null;
+        File resizedFile = null;
         try {
 
-            byte[] fileContent = nodesApi.getNodeContent(uuid, true, null, null).getBody().getContentAsByteArray();
-            File pictureFile = Files.createTempFile(null, null).toFile();
-            Files.write(pictureFile.toPath(), fileContent);
+            pictureFile = renditionService.getNodeContent(uuid);
+            Long hash = imageService.getPerceptualHash(pictureFile);
+
+            Description description = hash == null ? null : descriptionIndex.find(hash, nodeUpdateService::getNodeDescription);
+            if (description == null) {
+                resizedFile = imageService.resize(pictureFile);
+                description = genAiClient.getDescription(resizedFile);
+            }
 
-            nodeUpdateService.updateNodeDescription(uuid, genAiClient.getDescription(pictureFile));
+            nodeUpdateService.updateNodeDescription(uuid, description);
+            if (hash != null) {
+                descriptionIndex.add(hash, uuid);
+            }
             LOG.debug("Picture {} has been updated with description", entry.getEntry().getName());
 
             return true;
@@ -84,6 +99,14 @@ public class AiApplierDescription implements AiApplierAction {
         } catch (IOException e) {
             e.printStackTrace();
             return false;
+        } finally {
+            // The downloaded and downsized pictures are temporary files
+            if (resizedFile != null) {
+                resizedFile.delete();
+            }
+            if (pictureFile != null) {
+                pictureFile.delete();
+            }
         }
 
     }
@@ -97,8 +120,16 @@ public class AiApplierDescription implements AiApplierAction {
     public String getUpdateField() {
         return descriptionProperty;
     }
+
+    /**
+     * Checks if the document is a picture, the only documents supported by the description action.
+     *
+     * @param mimeType The MIME type of the document content.
+     * @return {@code true} if the document is a picture; otherwise, {@code false}.
+     */
+    @Override
+    public boolean isSupported(String mimeType) {
+        return mimeType.contains("image");
+    }
     
-    public String getMimeType(String uuid) {
-    	return nodesApi.getNode(uuid, null, null, null).getBody().getEntry().getContent().getMimeType();
-    }        
 }
@@ -1,6 +1,5 @@
 package org.alfresco.genai.action;
 
-import org.alfresco.core.handler.NodesApi;
 import org.alfresco.genai.service.GenAiClient;
 import org.alfresco.genai.service.NodeUpdateService;
 import org.alfresco.genai.service.RenditionService;
@@ -11,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.File;
 import java.io.IOException;
 
 /**
@@ -22,12 +22,6 @@ public class AiApplierEntityLinkDBpedia implements AiApplierAction {
 
     static final Logger LOG = LoggerFactory.getLogger(AiApplierEntityLinkDBpedia.class);
 
-    /**
-     * Autowired instance of {@link NodesApi} for communication with the Alfresco Nodes API.
-     */
-    @Autowired
-    NodesApi nodesApi;   
-    
     /**
      * The property names for storing the document DBpedia entity links in the Alfresco repository obtained from configuration.
      */
@@ -71,18 +65,20 @@ public class AiApplierEntityLinkDBpedia implements AiApplierAction {
 
         String uuid = entry.getEntry().getId();
 
-        if (getMimeType(uuid).contains("image")) {
-			LOG.debug("Document {} is an image, entity linking is not supported", entry.getEntry().getName());
-			return false;
-		}
-        
+        String mimeType = getMimeType(entry);
+
         LOG.info("AiApplierEntityLinkDBpedia DBpedia entity linking document {} ({})", entry.getEntry().getName(), uuid);
 
-        if (renditionService.pdfRenditionIsCreated(uuid)) {
+        boolean renditionBypassed = renditionService.isRenditionBypassed(mimeType);
+
+        if (renditionBypassed || renditionService.pdfRenditionIsCreated(uuid)) {
 
             try {
 
-                nodeUpdateService.updateNodeEntityLinksDBpedia(uuid, genAiClient.getEntityLinksDBpedia(renditionService.getRenditionContent(uuid)));
+                File file = renditionBypassed ? renditionService.getNodeContent(uuid) : renditionService.getRenditionContent(uuid);
+                String fileMimeType = renditionBypassed ? mimeType : RenditionService.PDF_MIME_TYPE;
+                nodeUpdateService.updateNodeEntityLinksDBpedia(uuid, genAiClient.getEntityLinksDBpedia(file, fileMimeType),
+                        renditionService.getContentHash(uuid, renditionBypassed ? file : null));
                 LOG.info("Document {} has been updated with all DBpedia entity links data in an apsect", entry.getEntry().getName());
                 return true;
 
@@ -111,7 +107,4 @@ public class AiApplierEntityLinkDBpedia implements AiApplierAction {
         return entitylinksDBpediaProperty;
     }
     
-    public String getMimeType(String uuid) {
-    	return nodesApi.getNode(uuid, null, null, null).getBody().getEntry().getContent().getMimeType();
-    }        
 }
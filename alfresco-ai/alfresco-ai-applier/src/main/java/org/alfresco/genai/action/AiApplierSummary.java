@@ -1,6 +1,5 @@
 package org.alfresco.genai.action;
 
-import org.alfresco.core.handler.NodesApi;
 import org.alfresco.genai.service.GenAiClient;
 import org.alfresco.genai.service.NodeUpdateService;
 import org.alfresco.genai.service.RenditionService;
@@ -11,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.File;
 import java.io.IOException;
 
 /**
@@ -22,12 +22,6 @@ public class AiApplierSummary implements AiApplierAction {
 
     static final Logger LOG = LoggerFactory.getLogger(AiApplierSummary.class);
 
-    /**
-     * Autowired instance of {@link NodesApi} for communication with the Alfresco Nodes API.
-     */
-    @Autowired
-    NodesApi nodesApi;   
-    
     /**
      * The property name for storing the document summary in the Alfresco repository obtained from configuration.
      */
@@ -64,18 +58,20 @@ public class AiApplierSummary implements AiApplierAction {
 
         String uuid = entry.getEntry().getId();
 
-        if (getMimeType(uuid).contains("image")) {
-			LOG.debug("Document {} is an image, summarization is not supported", entry.getEntry().getName());
-			return false;
-		}
-        
+        String mimeType = getMimeType(entry);
+
         LOG.debug("Summarizing document {} ({})", entry.getEntry().getName(), uuid);
 
-        if (renditionService.pdfRenditionIsCreated(uuid)) {
+        boolean renditionBypassed = renditionService.isRenditionBypassed(mimeType);
+
+        if (renditionBypassed || renditionService.pdfRenditionIsCreated(uuid)) {
 
             try {
 
-                nodeUpdateService.updateNodeSummary(uuid, genAiClient.getSummary(renditionService.getRenditionContent(uuid)));
+                File file = renditionBypassed ? renditionService.getNodeContent(uuid) : renditionService.getRenditionContent(uuid);
+                String fileMimeType = renditionBypassed ? mimeType : RenditionService.PDF_MIME_TYPE;
+                nodeUpdateService.updateNodeSummary(uuid, genAiClient.getSummary(file, fileMimeType),
+                        renditionService.getContentHash(uuid, renditionBypassed ? file : null));
                 LOG.debug("Document {} has been updated with summary and tag", entry.getEntry().getName());
                 return true;
 
@@ -104,7 +100,4 @@ public class AiApplierSummary implements AiApplierAction {
         return summaryProperty;
     }
     
-    public String getMimeType(String uuid) {
-    	return nodesApi.getNode(uuid, null, null, null).getBody().getEntry().getContent().getMimeType();
-    }        
 }
@@ -68,19 +68,16 @@ public class GenAiClient {
     }
 
     /**
-     * Retrieves a document summary from the GenAI service for the provided PDF file.
+     * Retrieves a document summary from the GenAI service for the provided document file.
      *
-     * @param pdfFile The PDF file for which the summary is requested.
+     * @param file     The PDF or text file for which the summary is requested.
+     * @param mimeType The MIME type of the file.
      * @return A {@link Summary} object containing the summary, tags, and model information.
      * @throws IOException If an I/O error occurs during the HTTP request or response processing.
      */
-    public Summary getSummary(File pdfFile) throws IOException {
+    public Summary getSummary(File file, String mimeType) throws IOException {
 
-        RequestBody requestBody = new MultipartBody
-                .Builder()
-                .setType(MultipartBody.FORM)
-                .addFormDataPart("file", pdfFile.getName(), RequestBody.create(pdfFile, MediaType.parse("application/pdf")))
-                .build();
+        RequestBody requestBody = documentRequestBody(file, mimeType);
 
         Request request = new Request
                 .Builder()
@@ -97,20 +94,17 @@ public class GenAiClient {
     }
 
     /**
-     * Selects a term from a term list using the GenAI service for the provided PDF file.
+     * Selects a term from a term list using the GenAI service for the provided document file.
      *
-     * @param pdfFile   The PDF file containing the document related to the question.
+     * @param file      The PDF or text file containing the document related to the question.
+     * @param mimeType  The MIME type of the file.
      * @param termList  List of terms that includes options to be selected.
      * @return An {@link Term} object containing the term and the model information.
      * @throws IOException If an I/O error occurs during the HTTP request or response processing.
      */
-    public Term getTerm(File pdfFile, String termList) throws IOException {
+    public Term getTerm(File file, String mimeType, String termList) throws IOException {
 
-        RequestBody requestBody = new MultipartBody
-                .Builder()
-                .setType(MultipartBody.FORM)
-                .addFormDataPart("file", pdfFile.getName(), RequestBody.create(pdfFile, MediaType.parse("application/pdf")))
-                .build();
+        RequestBody requestBody = documentRequestBody(file, mimeType);
 
         HttpUrl httpUrl = HttpUrl.parse(genaiUrl + "/classify")
                 .newBuilder()
@@ -167,21 +161,18 @@ public class GenAiClient {
     }
     
     /**
-     * Retrieves a document Wikidata entity links from the GenAI service for the provided PDF file.
+     * Retrieves a document Wikidata entity links from the GenAI service for the provided document file.
      *
-     * @param pdfFile The PDF file for which the entity links are requested.
+     * @param file     The PDF or text file for which the entity links are requested.
+     * @param mimeType The MIME type of the file.
      * @return A {@link EntityLinks} object containing the entity links information.
      * @throws IOException If an I/O error occurs during the HTTP request or response processing.
      */
-    public EntityLinks getEntityLinksWikidata(File pdfFile) throws IOException {
+    public EntityLinks getEntityLinksWikidata(File file, String mimeType) throws IOException {
 
     	LOG.debug("ai-applier GenAiClient getEntityLinksWikidata");
 
-    	RequestBody requestBody = new MultipartBody
-                .Builder()
-                .setType(MultipartBody.FORM)
-                .addFormDataPart("file", pdfFile.getName(), RequestBody.create(pdfFile, MediaType.parse("application/pdf")))
-                .build();
+        RequestBody requestBody = documentRequestBody(file, mimeType);
 
         Request request = new Request
                 .Builder()
@@ -219,21 +210,18 @@ public class GenAiClient {
     }
 
     /**
-     * Retrieves a document DBpedia entity links from the GenAI service for the provided PDF file.
+     * Retrieves a document DBpedia entity links from the GenAI service for the provided document file.
      *
-     * @param pdfFile The PDF file for which the entity links are requested.
+     * @param file     The PDF or text file for which the entity links are requested.
+     * @param mimeType The MIME type of the file.
      * @return A {@link EntityLinks} object containing the entity links information.
      * @throws IOException If an I/O error occurs during the HTTP request or response processing.
      */
-    public EntityLinks getEntityLinksDBpedia(File pdfFile) throws IOException {
+    public EntityLinks getEntityLinksDBpedia(File file, String mimeType) throws IOException {
     	
     	LOG.debug("ai-applier GenAiClient getEntityLinksDBpedia");
 
-    	RequestBody requestBody = new MultipartBody
-                .Builder()
-                .setType(MultipartBody.FORM)
-                .addFormDataPart("file", pdfFile.getName(), RequestBody.create(pdfFile, MediaType.parse("application/pdf")))
-                .build();
+        RequestBody requestBody = documentRequestBody(file, mimeType);
 
         Request request = new Request
                 .Builder()
@@ -270,4 +258,19 @@ public class GenAiClient {
                 .target("DBpedia");      
     }
 
+    /**
+     * Builds the multipart request body used to upload a document to the GenAI service.
+     *
+     * @param file     The PDF or text file to be uploaded.
+     * @param mimeType The MIME type of the file.
+     * @return The {@link RequestBody} including the file as "file" form data part.
+     */
+    private RequestBody documentRequestBody(File file, String mimeType) {
+        return new MultipartBody
+                .Builder()
+                .setType(MultipartBody.FORM)
+                .addFormDataPart("file", file.getName(), RequestBody.create(file, MediaType.parse(mimeType)))
+                .build();
+    }
+
 }
@@ -1,9 +1,17 @@
 package org.alfresco.genai.service;
 
+import feign.FeignException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.alfresco.core.handler.NodesApi;
 import org.alfresco.core.handler.TagsApi;
+import org.alfresco.core.model.Node;
 import org.alfresco.core.model.NodeBodyUpdate;
+import org.alfresco.core.model.NodeEntry;
 import org.alfresco.core.model.TagBody;
+import org.alfresco.core.model.TagEntry;
+import org.alfresco.core.model.TagPagingList;
+import org.alfresco.genai.action.AiApplierAction.Action;
 import org.alfresco.genai.model.Description;
 import org.alfresco.genai.model.EntityLinks;
 import org.alfresco.genai.model.Summary;
@@ -12,16 +20,34 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
  * The {@code NodeUpdateService} class is a Spring service responsible for updating document nodes with GenAI
  * information. It utilizes the Alfresco Nodes API and Tags API for updating node properties and creating tags
  * associated with the document identified by its UUID.
+ *
+ * <p>Updates of the same node can be buffered for a short time and written as a single request, so several operations
+ * finishing together don't create a new version and a new index update each.
  */
 @Service
 public class NodeUpdateService {
@@ -33,6 +59,16 @@ public class NodeUpdateService {
      */
     static final String TAG_PROPERTY = "TAG";
 
+    /**
+     * Number of tags retrieved in every request when listing the tags of a node.
+     */
+    static final int TAG_PAGE_SIZE = 100;
+
+    /**
+     * Pattern to collapse consecutive whitespace in tags.
+     */
+    static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     /**
      * The aspect name to be applied to a summarized document.
      */
@@ -128,6 +164,38 @@ public class NodeUpdateService {
  
     @Value("${content.service.entitylinks-dbpedia.typelistsDBpedia.property}")
     private String typelistsDBpediaProperty;
+
+    /**
+     * Aspect name for storing the fingerprint of the content processed by GenAI operations.
+     */
+    @Value("${content.service.fingerprint.aspect}")
+    private String fingerprintAspect;
+
+    /**
+     * The property name for storing the hash of the content processed by GenAI operations obtained from configuration,
+     * suffixed with the name of every operation.
+     */
+    @Value("${content.service.fingerprint.hash.property}")
+    private String contentHashProperty;
+
+    /**
+     * Aspect name for storing the processing status shared by every process applying GenAI operations.
+     */
+    @Value("${content.service.processing.aspect}")
+    private String processingAspect;
+
+    /**
+     * The property names for storing the processing status and the lease of the process working on the node obtained
+     * from configuration, suffixed with the operation family.
+     */
+    @Value("${content.service.processing.status.property}")
+    private String statusProperty;
+
+    @Value("${content.service.processing.lease.expiry.property}")
+    private String leaseExpiryProperty;
+
+    @Value("${content.service.processing.lease.owner.property}")
+    private String leaseOwnerProperty;
     
     
     /**
@@ -143,64 +211,192 @@ public class NodeUpdateService {
     TagsApi tagsApi;
 
     /**
-     * Updates the node properties and creates tags for the document identified by its UUID based on the provided
-     * {@link Summary} object.
+     * Maximum number of nodes whose aspect names are kept in memory obtained from configuration.
+     */
+    @Value("${content.service.node.cache.size}")
+    int nodeCacheSize;
+
+    /**
+     * Aspect names of recently seen nodes, taken from events, search results and update responses, to avoid reading
+     * the node before every update.
+     */
+    private Map<String, List<String>> aspectNamesCache;
+
+    /**
+     * Properties of recently seen nodes, taken from search results and update responses, to avoid writing values
+     * already stored in the node.
+     */
+    private Map<String, Map<String, Object>> knownPropertiesCache;
+
+    /**
+     * Tags applied to recently tagged nodes, to avoid creating the same tag again.
+     */
+    private Map<String, Set<String>> knownTagsCache;
+
+    /**
+     * Delay in milliseconds to buffer node updates obtained from configuration. Updates of the same node within this
+     * window are merged into a single request, creating a single version and a single index update. A value of 0
+     * writes every update immediately.
+     */
+    @Value("${content.service.update.delay}")
+    long updateDelay;
+
+    /**
+     * Updates waiting to be written by node.
+     */
+    private final Map<String, PendingUpdate> pendingUpdates = new HashMap<>();
+
+    /**
+     * Scheduler writing buffered updates once the delay expires.
+     */
+    private ScheduledExecutorService flushScheduler;
+
+    /**
+     * Initializes the bounded caches of aspect names, properties and tags, evicting the least recently used nodes, and the scheduler for
+     * buffered updates.
+     */
+    @PostConstruct
+    public void init() {
+        aspectNamesCache = lruCache();
+        knownPropertiesCache = lruCache();
+        knownTagsCache = lruCache();
+        if (updateDelay > 0) {
+            flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "node-update-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Creates a synchronized map holding up to the configured number of nodes, evicting the least recently used ones.
+     *
+     * @param <V> The type of the cached values.
+     * @return The empty cache.
+     */
+    private <V> Map<String, V> lruCache() {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > nodeCacheSize;
+            }
+        });
+    }
+
+    /**
+     * Writes the buffered updates before the application stops.
+     */
+    @PreDestroy
+    public void destroy() {
+        flush();
+        if (flushScheduler != null) {
+            flushScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Records the aspect names of a node already known by the caller, like the ones included in a repository event
+     * or in a search result, so updates don't need to read the node.
      *
-     * @param uuid     The unique identifier of the document node.
-     * @param summary  The {@link Summary} object containing summary, tags, and model information.
+     * @param uuid        The unique identifier of the node.
+     * @param aspectNames The current aspect names of the node.
      */
-    public void updateNodeSummary(String uuid, Summary summary) {
+    public void setAspectNames(String uuid, Collection<String> aspectNames) {
+        if (aspectNames != null) {
+            aspectNamesCache.put(uuid, List.copyOf(aspectNames));
+        }
+    }
+
+    /**
+     * Records the properties of a node already known by the caller, like the ones included in a search result, so
+     * updates can skip the values already stored in the node.
+     *
+     * @param uuid       The unique identifier of the node.
+     * @param properties The current properties of the node, as returned by the REST API.
+     */
+    public void setProperties(String uuid, Object properties) {
+        if (properties instanceof Map<?, ?> map) {
+            knownPropertiesCache.put(uuid, new HashMap<>((Map<String, Object>) map));
+        }
+    }
 
-        List<String> aspectNames =
-                nodesApi.getNode(uuid, null, null, null).getBody().getEntry().getAspectNames();
-        if (!aspectNames.contains(summaryAspect)) {
-            aspectNames.add(summaryAspect);
+    /**
+     * Gets the aspect names of a node, reading the node from the repository only when they are not known.
+     *
+     * @param uuid The unique identifier of the node.
+     * @return The aspect names of the node.
+     */
+    public List<String> getAspectNames(String uuid) {
+        List<String> aspectNames = aspectNamesCache.get(uuid);
+        if (aspectNames == null) {
+            Node node = nodesApi.getNode(uuid, null, null, null).getBody().getEntry();
+            aspectNames = node.getAspectNames();
+            setAspectNames(uuid, aspectNames);
+            setProperties(uuid, node.getProperties());
         }
+        return aspectNames;
+    }
+
+    /**
+     * Gets the name of a property kept for every GenAI operation, made of the configured property name followed by
+     * the capitalized operation name, like {@code genai:contentHashSummary}.
+     *
+     * @param property  The configured property name.
+     * @param operation The name of the GenAI operation.
+     * @return The property name for the operation.
+     */
+    public static String getOperationProperty(String property, String operation) {
+        return property + operation.charAt(0) + operation.substring(1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Updates the node properties and creates tags for the document identified by its UUID based on the provided
+     * {@link Summary} object, together with the hash of the summarized content.
+     *
+     * @param uuid        The unique identifier of the document node.
+     * @param summary     The {@link Summary} object containing summary, tags, and model information.
+     * @param contentHash The hash of the document content.
+     */
+    public void updateNodeSummary(String uuid, Summary summary, String contentHash) {
 
         Map<String, Object> properties = new HashMap<>();
         properties.put(summaryProperty, summary.getSummary());
+        properties.put(getOperationProperty(contentHashProperty, Action.SUMMARY.name()), contentHash);
         if (!summaryModelProperty.equals(TAG_PROPERTY)) {
             properties.put(summaryModelProperty, summary.getModel());
         }
         if (!summaryTagsProperty.equals(TAG_PROPERTY)) {
             properties.put(summaryTagsProperty, summary.getTags());
         }
-        nodesApi.updateNode(uuid,
-                new NodeBodyUpdate().properties(properties).aspectNames(aspectNames),
-                null, null);
+        updateNode(uuid, properties, Set.of(summaryAspect, fingerprintAspect));
 
+        List<String> tags = new ArrayList<>();
         if (summaryModelProperty.equals(TAG_PROPERTY)) {
-            tagsApi.createTagForNode(uuid, new TagBody().tag(summary.getModel()), null);
+            tags.add(summary.getModel());
         }
-
         if (summaryTagsProperty.equals(TAG_PROPERTY)) {
-            summary.getTags().forEach(tag ->
-                    tagsApi.createTagForNode(uuid, new TagBody().tag(tag.replace('.', ' ').trim()), null));
+            summary.getTags().forEach(tag -> tags.add(tag.replace('.', ' ')));
         }
+        createTags(uuid, tags);
     }
 
     /**
      * Updates the node properties with term content and model information for the document identified by its UUID based
-     * on the provided {@link Term} object.
+     * on the provided {@link Term} object, together with the hash of the classified content.
      *
-     * @param uuid  The unique identifier of the document node.
-     * @param term  The {@link Term} object containing the answer content and model information.
+     * @param uuid        The unique identifier of the document node.
+     * @param term        The {@link Term} object containing the answer content and model information.
+     * @param contentHash The hash of the document content.
      */
-    public void updateNodeTerm(String uuid, Term term) {
-
-        List<String> aspectNames =
-                nodesApi.getNode(uuid, null, null, null).getBody().getEntry().getAspectNames();
-        if (!aspectNames.contains(classifyAspect)) {
-            aspectNames.add(classifyAspect);
-        }
-
-        nodesApi.updateNode(uuid,
-                new NodeBodyUpdate()
-                        .properties(Map.of(
-                                termProperty, term.getTerm(),
-                                termModelProperty, term.getModel()))
-                        .aspectNames(aspectNames),
-                null, null);
+    public void updateNodeTerm(String uuid, Term term, String contentHash) {
+
+        updateNode(uuid,
+                Map.of(
+                        termProperty, term.getTerm(),
+                        termModelProperty, term.getModel(),
+                        getOperationProperty(contentHashProperty, Action.CLASSIFY.name()), contentHash),
+                Set.of(classifyAspect, fingerprintAspect));
     }
     
     /**
@@ -212,80 +408,273 @@ public class NodeUpdateService {
      */
     public void updateNodeDescription(String uuid, Description description) {
 
-        List<String> aspectNames =
-                nodesApi.getNode(uuid, null, null, null).getBody().getEntry().getAspectNames();
-        if (!aspectNames.contains(descriptionAspect)) {
-            aspectNames.add(descriptionAspect);
-        }
+        updateNode(uuid,
+                Map.of(
+                        descriptionProperty, description.getDescription(),
+                        descriptionModelProperty, description.getModel()),
+                Set.of(descriptionAspect));
+    }
 
-        nodesApi.updateNode(uuid,
-                new NodeBodyUpdate()
-                        .properties(Map.of(
-                                descriptionProperty, description.getDescription(),
-                                descriptionModelProperty, description.getModel()))
-                        .aspectNames(aspectNames),
-                null, null);
+    /**
+     * Retrieves the description and model information stored in the picture identified by its UUID.
+     *
+     * @param uuid The unique identifier of the picture node.
+     * @return The {@link Description} stored in the picture, or {@code null} if the picture has not been described or
+     *         has been removed.
+     */
+    public Description getNodeDescription(String uuid) {
+        synchronized (pendingUpdates) {
+            PendingUpdate pendingUpdate = pendingUpdates.get(uuid);
+            if (pendingUpdate != null && pendingUpdate.properties.get(descriptionProperty) != null) {
+                return new Description()
+                        .description(pendingUpdate.properties.get(descriptionProperty).toString())
+                        .model((String) pendingUpdate.properties.get(descriptionModelProperty));
+            }
+        }
+        Map<String, Serializable> properties;
+        try {
+            properties = (Map<String, Serializable>) nodesApi.getNode(uuid, null, null, null).getBody()
+                    .getEntry().getProperties();
+        } catch (FeignException.NotFound e) {
+            return null;
+        }
+        if (properties == null || properties.get(descriptionProperty) == null) {
+            return null;
+        }
+        return new Description()
+                .description(properties.get(descriptionProperty).toString())
+                .model(properties.get(descriptionModelProperty) == null ?
+                        null : properties.get(descriptionModelProperty).toString());
     }
     
     /**
      * Updates the node properties with Wikidata entity links for the document identified by its UUID based
-     * on the provided {@link EntityLinks} object.
+     * on the provided {@link EntityLinks} object, together with the hash of the linked content.
      *
      * @param uuid         The unique identifier of the document node.
      * @param entityLinks  The {@link EntityLinks} object containing the entity links data.
+     * @param contentHash  The hash of the document content.
      */
-    public void updateNodeEntityLinksWikidata(String uuid, EntityLinks entityLinks) {
+    public void updateNodeEntityLinksWikidata(String uuid, EntityLinks entityLinks, String contentHash) {
 
     	LOG.debug("ai-applier NodeUpdateService updateNodeEntityLinksWikidata");  	
 
-    	List<String> aspectNames =
-                nodesApi.getNode(uuid, null, null, null).getBody().getEntry().getAspectNames();
-        if (!aspectNames.contains(entityLinksWikidataAspect)) {
-            aspectNames.add(entityLinksWikidataAspect);
-        }
+        updateNode(uuid,
+                Map.of(
+                        labelsWikidataProperty, entityLinks.getEntityLabels(),
+                        linksWikidataProperty, entityLinks.getEntityLinks(),
+                        typelistsWikidataProperty, entityLinks.getEntityTypeLists(),
+                        getOperationProperty(contentHashProperty, Action.ENTITYLINKWIKIDATA.name()), contentHash),
+                Set.of(entityLinksWikidataAspect, fingerprintAspect));
 
-        nodesApi.updateNode(uuid,
-                new NodeBodyUpdate()
-                        .properties(Map.of(
-                        		labelsWikidataProperty, entityLinks.getEntityLabels(),
-                                linksWikidataProperty, entityLinks.getEntityLinks(),
-                                typelistsWikidataProperty, entityLinks.getEntityTypeLists() ))
-                        .aspectNames(aspectNames),
-                null, null);
-
-        entityLinks.getEntityLabels().forEach(tag ->
-        	tagsApi.createTagForNode(uuid, new TagBody().tag(tag.replace('.', ' ').trim()), null));        
+        createTags(uuid, entityLinks.getEntityLabels().stream().map(tag -> tag.replace('.', ' ')).toList());
     }
 
     /**
      * Updates the node properties with DBpedia entity links for the document identified by its UUID based
-     * on the provided {@link EntityLinks} object.
+     * on the provided {@link EntityLinks} object, together with the hash of the linked content.
      *
      * @param uuid         The unique identifier of the document node.
      * @param entityLinks  The {@link EntityLinks} object containing the entity links data.
+     * @param contentHash  The hash of the document content.
      */
-    public void updateNodeEntityLinksDBpedia(String uuid, EntityLinks entityLinks) {
+    public void updateNodeEntityLinksDBpedia(String uuid, EntityLinks entityLinks, String contentHash) {
 
     	LOG.debug("ai-applier NodeUpdateService updateNodeEntityLinksDBpedia");   	
     	
-        List<String> aspectNames =
-                nodesApi.getNode(uuid, null, null, null).getBody().getEntry().getAspectNames();
-        if (!aspectNames.contains(entityLinksDBpediaAspect)) {
-            aspectNames.add(entityLinksDBpediaAspect);
+        updateNode(uuid,
+                Map.of(
+                        labelsDBpediaProperty, entityLinks.getEntityLabels(),
+                        linksDBpediaProperty, entityLinks.getEntityLinks(),
+                        typelistsDBpediaProperty, entityLinks.getEntityTypeLists(),
+                        getOperationProperty(contentHashProperty, Action.ENTITYLINKDBPEDIA.name()), contentHash),
+                Set.of(entityLinksDBpediaAspect, fingerprintAspect));
+
+        createTags(uuid, entityLinks.getEntityLabels().stream().map(tag -> tag.replace('.', ' ')).toList());
+    }
+
+    /**
+     * Updates the processing status of an operation family of the node and the lease of the process working on it.
+     * The status is buffered like any other update, so taking the node, the results of the operation and releasing
+     * the node are written together when the operation finishes within the update delay.
+     *
+     * @param uuid        The unique identifier of the node.
+     * @param family      The operation family.
+     * @param status      The processing status.
+     * @param leaseExpiry The time until the node is kept by the process, or {@code null} to release it.
+     * @param leaseOwner  The name of the process keeping the node, or {@code null} to release it.
+     */
+    public void updateNodeStatus(String uuid, String family, String status, String leaseExpiry, String leaseOwner) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(getOperationProperty(statusProperty, family), status);
+        properties.put(getOperationProperty(leaseExpiryProperty, family), leaseExpiry);
+        properties.put(getOperationProperty(leaseOwnerProperty, family), leaseOwner);
+        updateNode(uuid, properties, Set.of(processingAspect));
+    }
+
+    /**
+     * Tags the node with the normalized (lowercase with single spaces) and deduplicated tags. Tags already applied to the node are skipped, so only
+     * new tags produce a request.
+     *
+     * @param uuid The unique identifier of the node.
+     * @param tags The tags obtained from the GenAI service.
+     */
+    private void createTags(String uuid, Collection<String> tags) {
+        Set<String> knownTags = getKnownTags(uuid);
+        tags.stream()
+                .filter(Objects::nonNull)
+                .map(tag -> WHITESPACE.matcher(tag).replaceAll(" ").trim().toLowerCase(Locale.ROOT))
+                .filter(tag -> !tag.isEmpty())
+                .distinct()
+                .filter(tag -> !knownTags.contains(tag))
+                .forEach(tag -> {
+                    tagsApi.createTagForNode(uuid, new TagBody().tag(tag), null);
+                    knownTags.add(tag);
+                });
+    }
+
+    /**
+     * Gets the tags applied to the node, listing them from the repository only the first time the node is tagged.
+     *
+     * @param uuid The unique identifier of the node.
+     * @return The mutable set of lowercase tags applied to the node.
+     */
+    private Set<String> getKnownTags(String uuid) {
+        Set<String> knownTags = knownTagsCache.get(uuid);
+        if (knownTags == null) {
+            knownTags = ConcurrentHashMap.newKeySet();
+            int skipCount = 0;
+            TagPagingList tagPage;
+            do {
+                tagPage = tagsApi.listTagsForNode(uuid, skipCount, TAG_PAGE_SIZE, null).getBody().getList();
+                for (TagEntry tagEntry : tagPage.getEntries()) {
+                    knownTags.add(tagEntry.getEntry().getTag().toLowerCase(Locale.ROOT));
+                }
+                skipCount += TAG_PAGE_SIZE;
+            } while (Boolean.TRUE.equals(tagPage.getPagination().isHasMoreItems()));
+            knownTagsCache.put(uuid, knownTags);
         }
+        return knownTags;
+    }
 
-        nodesApi.updateNode(uuid,
-                new NodeBodyUpdate()
-                        .properties(Map.of(
-                        		labelsDBpediaProperty, entityLinks.getEntityLabels(),
-                                linksDBpediaProperty, entityLinks.getEntityLinks(),
-                                typelistsDBpediaProperty, entityLinks.getEntityTypeLists() ))
-                        .aspectNames(aspectNames),
-                null, null);
+    /**
+     * Buffers an update of the node, merging it with the pending updates of the same node. The update is written
+     * immediately when buffering is disabled.
+     *
+     * @param uuid       The unique identifier of the node.
+     * @param properties The properties to be updated.
+     * @param aspects    The aspects required by the properties, empty if they don't belong to an aspect.
+     */
+    private void updateNode(String uuid, Map<String, ?> properties, Set<String> aspects) {
+        if (updateDelay <= 0) {
+            writeNode(uuid, properties, aspects);
+            return;
+        }
+        synchronized (pendingUpdates) {
+            PendingUpdate pendingUpdate = pendingUpdates.get(uuid);
+            if (pendingUpdate == null) {
+                pendingUpdate = new PendingUpdate();
+                pendingUpdates.put(uuid, pendingUpdate);
+                flushScheduler.schedule(() -> flush(uuid), updateDelay, TimeUnit.MILLISECONDS);
+            }
+            pendingUpdate.properties.putAll(properties);
+            pendingUpdate.aspects.addAll(aspects);
+        }
+    }
+
+    /**
+     * Writes every pending update to the repository.
+     */
+    public void flush() {
+        List<String> uuids;
+        synchronized (pendingUpdates) {
+            uuids = new ArrayList<>(pendingUpdates.keySet());
+        }
+        uuids.forEach(this::flush);
+    }
+
+    /**
+     * Writes the pending update of the node to the repository as a single request. As the update is no longer
+     * related to the operation that produced it, errors are logged.
+     *
+     * @param uuid The unique identifier of the node.
+     */
+    private void flush(String uuid) {
+        PendingUpdate pendingUpdate;
+        synchronized (pendingUpdates) {
+            pendingUpdate = pendingUpdates.remove(uuid);
+        }
+        if (pendingUpdate != null) {
+            try {
+                writeNode(uuid, pendingUpdate.properties, pendingUpdate.aspects);
+            } catch (RuntimeException e) {
+                LOG.error("Error updating node {}", uuid, e);
+            }
+        }
+    }
+
+    /**
+     * Updates the node and keeps the aspect names returned by the repository for next updates. As the list of aspect
+     * names replaces every aspect of the node, it is only sent when some of the aspects are missing. Properties are
+     * compared with the values known from search results and previous updates, and the node is not updated when every
+     * value and aspect is already stored.
+     *
+     * @param uuid       The unique identifier of the node.
+     * @param properties The properties to be updated.
+     * @param aspects    The aspects required by the properties.
+     */
+    private void writeNode(String uuid, Map<String, ?> properties, Set<String> aspects) {
+        List<String> aspectNames = getAspectNames(uuid);
+        Map<String, Object> changedProperties = getChangedProperties(properties, knownPropertiesCache.get(uuid));
+        if (changedProperties.isEmpty() && aspectNames.containsAll(aspects)) {
+            LOG.debug("Node {} already stores the same values, update is skipped", uuid);
+            return;
+        }
+        NodeBodyUpdate nodeBodyUpdate = new NodeBodyUpdate().properties(changedProperties);
+        if (!aspectNames.containsAll(aspects)) {
+            Set<String> updatedAspectNames = new LinkedHashSet<>(aspectNames);
+            updatedAspectNames.addAll(aspects);
+            nodeBodyUpdate.aspectNames(new ArrayList<>(updatedAspectNames));
+        }
+        ResponseEntity<NodeEntry> response = nodesApi.updateNode(uuid, nodeBodyUpdate, null, null);
+        if (response != null && response.getBody() != null) {
+            setAspectNames(uuid, response.getBody().getEntry().getAspectNames());
+            setProperties(uuid, response.getBody().getEntry().getProperties());
+        }
+    }
+
+    /**
+     * Gets the properties whose value differs from the value already stored in the node, so unchanged values produced
+     * again by the GenAI service don't create a new version of the node.
+     *
+     * @param properties      The properties to be updated.
+     * @param knownProperties The properties stored in the node, or {@code null} if they are unknown.
+     * @return The properties to be written.
+     */
+    private Map<String, Object> getChangedProperties(Map<String, ?> properties, Map<String, ?> knownProperties) {
+        Map<String, Object> changedProperties = new HashMap<>(properties);
+        if (knownProperties != null) {
+            changedProperties.entrySet().removeIf(property ->
+                    Objects.equals(property.getValue(), knownProperties.get(property.getKey())));
+        }
+        return changedProperties;
+    }
 
+    /**
+     * Properties and aspects waiting to be written to a node.
+     */
+    private static class PendingUpdate {
+
+        /**
+         * Properties to be updated, the latest value of a property replaces the previous one.
+         */
+        final Map<String, Object> properties = new HashMap<>();
+
+        /**
+         * Aspects required by the properties.
+         */
+        final Set<String> aspects = new LinkedHashSet<>();
 
-        entityLinks.getEntityLabels().forEach(tag ->
-    		tagsApi.createTagForNode(uuid, new TagBody().tag(tag.replace('.', ' ').trim()), null));                
     }
-            
+
 }
@@ -0,0 +1,227 @@
+package org.alfresco.genai.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code ProcessingStatusService} class is a Spring service keeping the processing status of a node in the node
+ * itself, so the listener and the applier don't work on the same node at the same time. A process takes a node by
+ * setting the status to {@code in-progress} with a lease, and other processes skip the node until the process
+ * releases it with the final status ({@code pending}, {@code done} or {@code failed}) or the lease expires.
+ *
+ * <p>The status and the lease are kept for every operation family (like {@code genai:statusSummary}), so processes
+ * applying different families work on the same node without skipping or overwriting each other. Several works of the
+ * same process may apply a family to a node together: the node is taken by the first one and released by the last
+ * one, with the worst status of all of them.
+ *
+ * <p>The status is buffered with the results of the operations, so taking and releasing a node doesn't cost writes
+ * of its own when the operation finishes within the update delay.
+ */
+@Service
+public class ProcessingStatusService {
+
+    static final Logger LOG = LoggerFactory.getLogger(ProcessingStatusService.class);
+
+    /**
+     * Status of a node waiting for a PDF rendition to be processed.
+     */
+    public static final String PENDING = "pending";
+
+    /**
+     * Status of a node being processed.
+     */
+    public static final String IN_PROGRESS = "in-progress";
+
+    /**
+     * Status of a node whose operations have been applied.
+     */
+    public static final String DONE = "done";
+
+    /**
+     * Status of a node whose operations have failed.
+     */
+    public static final String FAILED = "failed";
+
+    /**
+     * Format of date properties in the Alfresco REST API.
+     */
+    static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+
+    /**
+     * Name of this process, stored as owner of the nodes it takes.
+     */
+    static final String OWNER = ManagementFactory.getRuntimeMXBean().getName();
+
+    /**
+     * Separator between the node and the operation family in the key of a lease.
+     */
+    static final String KEY_SEPARATOR = "/";
+
+    /**
+     * The property name storing the processing status obtained from configuration, suffixed with the operation
+     * family.
+     */
+    @Value("${content.service.processing.status.property}")
+    String statusProperty;
+
+    /**
+     * The property name storing the lease expiry obtained from configuration, suffixed with the operation family.
+     */
+    @Value("${content.service.processing.lease.expiry.property}")
+    String leaseExpiryProperty;
+
+    /**
+     * The property name storing the lease owner obtained from configuration, suffixed with the operation family.
+     */
+    @Value("${content.service.processing.lease.owner.property}")
+    String leaseOwnerProperty;
+
+    /**
+     * Seconds a node is kept by this process obtained from configuration.
+     */
+    @Value("${content.service.processing.lease}")
+    long leaseDuration;
+
+    /**
+     * Autowired instance of {@link NodeUpdateService} for updating the status of nodes.
+     */
+    @Autowired
+    NodeUpdateService nodeUpdateService;
+
+    /**
+     * Operation families of nodes taken by this process, by node and family.
+     */
+    private final Map<String, Lease> leases = new HashMap<>();
+
+    /**
+     * Takes the node for processing an operation family, unless another process holds a lease on the family that has
+     * not expired yet. The lease is read from the properties included in the search results, so the node doesn't need
+     * to be read again.
+     *
+     * @param uuid       The unique identifier of the node.
+     * @param family     The operation family, like {@code SUMMARY} or {@code DESCRIPTION}.
+     * @param properties The properties of the node included in the search results.
+     * @return {@code true} if the node can be processed, {@code false} if it has to be skipped.
+     */
+    public boolean start(String uuid, String family, Object properties) {
+
+        String key = uuid + KEY_SEPARATOR + family;
+        synchronized (leases) {
+            Lease lease = leases.get(key);
+            if (lease != null) {
+                lease.count++;
+                return true;
+            }
+        }
+
+        if (properties instanceof Map<?, ?> nodeProperties && isLeasedByOther(nodeProperties, family)) {
+            LOG.info("{} of node {} is being processed by {}, it is skipped", family, uuid,
+                    nodeProperties.get(NodeUpdateService.getOperationProperty(leaseOwnerProperty, family)));
+            return false;
+        }
+
+        synchronized (leases) {
+            Lease lease = leases.get(key);
+            if (lease != null) {
+                lease.count++;
+                return true;
+            }
+            leases.put(key, new Lease());
+        }
+        nodeUpdateService.updateNodeStatus(uuid, family, IN_PROGRESS,
+                DATE_FORMAT.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(leaseDuration)), OWNER);
+        return true;
+
+    }
+
+    /**
+     * Finishes the processing of a node taken by {@link #start(String, String, Object)}. The node is released when
+     * every work of this process applying the family to the node has finished.
+     *
+     * @param uuid   The unique identifier of the node.
+     * @param family The operation family.
+     * @param status The final status of the operation: {@link #PENDING}, {@link #DONE} or {@link #FAILED}.
+     */
+    public void finish(String uuid, String family, String status) {
+        String key = uuid + KEY_SEPARATOR + family;
+        String finalStatus;
+        synchronized (leases) {
+            Lease lease = leases.get(key);
+            if (lease == null) {
+                return;
+            }
+            if (FAILED.equals(status) || (PENDING.equals(status) && !FAILED.equals(lease.status))) {
+                lease.status = status;
+            }
+            if (--lease.count > 0) {
+                return;
+            }
+            leases.remove(key);
+            finalStatus = lease.status;
+        }
+        nodeUpdateService.updateNodeStatus(uuid, family, finalStatus, null, null);
+    }
+
+    /**
+     * Gets the search query clause excluding the nodes whose operation family is held by a process whose lease has
+     * not expired.
+     *
+     * @param family The operation family.
+     * @return The AFTS clause to be added to the search query.
+     */
+    public String getInFlightExclusion(String family) {
+        return "NOT (" + NodeUpdateService.getOperationProperty(statusProperty, family) + ":\"" + IN_PROGRESS + "\" AND " +
+                NodeUpdateService.getOperationProperty(leaseExpiryProperty, family) + ":[NOW TO MAX])";
+    }
+
+    /**
+     * Checks if the operation family of the node is held by another process whose lease has not expired.
+     *
+     * @param properties The properties of the node.
+     * @param family     The operation family.
+     * @return {@code true} if another process is working on the node, {@code false} otherwise.
+     */
+    private boolean isLeasedByOther(Map<?, ?> properties, String family) {
+        Object leaseOwner = properties.get(NodeUpdateService.getOperationProperty(leaseOwnerProperty, family));
+        Object leaseExpiry = properties.get(NodeUpdateService.getOperationProperty(leaseExpiryProperty, family));
+        if (leaseOwner == null || leaseExpiry == null || OWNER.equals(leaseOwner)) {
+            return false;
+        }
+        try {
+            return ZonedDateTime.parse(leaseExpiry.toString(), DATE_FORMAT).toInstant().isAfter(Instant.now());
+        } catch (DateTimeParseException e) {
+            LOG.warn("Lease expiry {} can't be parsed, the lease is ignored", leaseExpiry);
+            return false;
+        }
+    }
+
+    /**
+     * Works of this process applying an operation family to a node.
+     */
+    private static class Lease {
+
+        /**
+         * Number of works applying the family to the node.
+         */
+        int count = 1;
+
+        /**
+         * Worst status of the finished operations.
+         */
+        String status = DONE;
+
+    }
+
+}
@@ -1,19 +1,27 @@
 package org.alfresco.genai.service;
 
+import org.alfresco.core.handler.NodesApi;
 import org.alfresco.core.handler.RenditionsApi;
 import org.alfresco.core.model.Rendition;
 import org.alfresco.core.model.RenditionBodyCreate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
 
 /**
  * The {@code RenditionService} class provides methods for interacting with document renditions through the Alfresco
  * Renditions API. It is a Spring service responsible for retrieving, checking, and creating PDF renditions for
  * documents identified by their unique identifiers (UUIDs).
+ * PDF and text documents are read from their original content, as they don't require a PDF rendition.
  */
 @Service
 public class RenditionService {
@@ -24,6 +32,49 @@ public class RenditionService {
     @Autowired
     RenditionsApi renditionsApi;
 
+    /**
+     * Autowired instance of {@link NodesApi} for retrieving the original content of documents.
+     */
+    @Autowired
+    NodesApi nodesApi;
+
+    /**
+     * MIME type of the PDF rendition and of the documents that can be sent without rendition to the GenAI service.
+     */
+    public static final String PDF_MIME_TYPE = "application/pdf";
+
+    /**
+     * MIME types of the documents that are sent to the GenAI service with the original content, obtained from
+     * configuration. No PDF rendition is requested for these documents.
+     */
+    @Value("${content.service.rendition.bypass.mimetypes}")
+    List<String> bypassMimeTypes;
+
+    /**
+     * Checks if the original content of a document can be sent directly to the GenAI service.
+     *
+     * @param mimeType The MIME type of the document content.
+     * @return {@code true} if the content is PDF or text that doesn't require a PDF rendition, {@code false} otherwise.
+     */
+    public boolean isRenditionBypassed(String mimeType) {
+        return mimeType != null && bypassMimeTypes.contains(mimeType);
+    }
+
+    /**
+     * Retrieves the original content of the document identified by its UUID.
+     *
+     * @param uuid The unique identifier of the document.
+     * @return A {@link File} object representing the original content.
+     * @throws IOException If an I/O error occurs during the retrieval of the content.
+     */
+    public File getNodeContent(String uuid) throws IOException {
+        byte[] fileContent =
+                nodesApi.getNodeContent(uuid, true, null, null).getBody().getContentAsByteArray();
+        File file = Files.createTempFile(null, null).toFile();
+        Files.write(file.toPath(), fileContent);
+        return file;
+    }
+
     /**
      * Retrieves the content of the PDF rendition for a specified document identified by its UUID.
      *
@@ -58,4 +109,49 @@ public class RenditionService {
     public void createPdfRendition(String uuid) {
         renditionsApi.createRendition(uuid, new RenditionBodyCreate().id("pdf"));
     }
+
+    /**
+     * Gets the fingerprint of the current content of the document. The original content is only downloaded when the
+     * caller doesn't have it already, and the downloaded file is deleted once hashed.
+     *
+     * @param uuid            The unique identifier of the document.
+     * @param originalContent The original content already retrieved by the caller, or {@code null} if it has not been
+     *                        retrieved.
+     * @return The hexadecimal SHA-256 hash of the original content.
+     * @throws IOException If an I/O error occurs during the retrieval of the content.
+     */
+    public String getContentHash(String uuid, File originalContent) throws IOException {
+        if (originalContent != null) {
+            return getContentHash(originalContent);
+        }
+        File file = getNodeContent(uuid);
+        try {
+            return getContentHash(file);
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    /**
+     * Computes the fingerprint of a content file, used to detect when the content of a document has not changed since
+     * the last GenAI operation.
+     *
+     * @param file The content file.
+     * @return The hexadecimal SHA-256 hash of the file.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    public String getContentHash(File file) throws IOException {
+        try (InputStream input = Files.newInputStream(file.toPath())) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
 }
@@ -0,0 +1,342 @@
+package org.alfresco.genai.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The {@code DescriptionIndex} class is a Spring service that keeps the perceptual hashes of described pictures, so
+ * the description of a near-duplicate picture (resized, re-saved or burst shots) can be reused instead of requesting
+ * a new one to the GenAI service. It is shared by the AI Listener and the AI Applier.
+ *
+ * <p>The index keeps the most recently described pictures up to the configured size. Hashes are split in as many
+ * blocks as the maximum distance plus one, and two hashes within that distance share at least one identical block,
+ * so near-duplicates are looked up by block instead of comparing the hash with every picture.
+ *
+ * <p>Hashes are kept in memory and, when an index file is configured, appended to that file to survive restarts. The
+ * file is compacted to the entries of the index when it is loaded and when it grows beyond twice the index size.
+ * Descriptions are always read from the repository, so the index only stores the node identifiers.
+ */
+@Service
+public class DescriptionIndex {
+
+    static final Logger LOG = LoggerFactory.getLogger(DescriptionIndex.class);
+
+    /**
+     * Maximum Hamming distance between two perceptual hashes to consider the pictures near-duplicates obtained from
+     * configuration. A negative value disables the reuse of descriptions.
+     */
+    @Value("${genai.describe.dedup.distance}")
+    int maxDistance;
+
+    /**
+     * File used to persist the index obtained from configuration. An empty value keeps the index only in memory.
+     */
+    @Value("${genai.describe.dedup.index.file}")
+    String indexFile;
+
+    /**
+     * Maximum number of pictures kept in the index obtained from configuration.
+     */
+    @Value("${genai.describe.dedup.index.size}")
+    int indexSize;
+
+    /**
+     * Perceptual hash of the last content described for every picture node, evicting the least recently used
+     * pictures.
+     */
+    private Map<String, Long> hashes;
+
+    /**
+     * Pictures by block value, for every block of the hashes.
+     */
+    private List<Map<Long, Set<String>>> blocks;
+
+    /**
+     * Position of the lowest bit of every block.
+     */
+    private int[] blockOffsets;
+
+    /**
+     * Number of bits of every block.
+     */
+    private int[] blockWidths;
+
+    /**
+     * Number of lines of the index file.
+     */
+    private int fileLines;
+
+    /**
+     * Loads the perceptual hashes persisted in the index file and compacts the file. Every line contains the
+     * hexadecimal hash and the node identifier, and later lines replace earlier ones for the same node. Malformed
+     * lines are skipped.
+     *
+     * @throws IOException If the index file can't be read.
+     */
+    @PostConstruct
+    public void load() throws IOException {
+        initBlocks();
+        hashes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() > indexSize) {
+                    unindex(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        if (isPersistent() && Files.exists(Path.of(indexFile))) {
+            List<String> lines = Files.readAllLines(Path.of(indexFile), StandardCharsets.UTF_8);
+            for (String line : lines) {
+                String[] fields = line.trim().split("\\s+");
+                try {
+                    if (fields.length != 2) {
+                        throw new NumberFormatException("2 fields expected");
+                    }
+                    put(fields[1], Long.parseUnsignedLong(fields[0], 16));
+                } catch (NumberFormatException e) {
+                    LOG.warn("Invalid line in {} is skipped: {}", indexFile, line);
+                }
+            }
+            fileLines = lines.size();
+            LOG.info("Loaded {} picture hashes from {}", hashes.size(), indexFile);
+            if (fileLines > hashes.size()) {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * Finds the description of the closest picture within the configured distance of the perceptual hash.
+     * Pictures that have been removed or lost their description are dropped from the index. When the description
+     * can't be read, for instance while the repository is unavailable, the picture is kept in the index and no
+     * description is reused.
+     *
+     * @param hash              The perceptual hash of the picture to be described.
+     * @param descriptionReader The function reading the description stored in a picture node, returning {@code null}
+     *                          if the picture has been removed or has not been described.
+     * @param <T>               The type of the description.
+     * @return The description of a near-duplicate picture, or {@code null} if there is none.
+     */
+    public <T> T find(long hash, Function<String, T> descriptionReader) {
+
+        if (maxDistance < 0) {
+            return null;
+        }
+
+        while (true) {
+
+            String closestUuid = null;
+            int closestDistance = Integer.MAX_VALUE;
+            synchronized (this) {
+                for (String uuid : getCandidates(hash)) {
+                    int distance = Long.bitCount(hashes.get(uuid) ^ hash);
+                    if (distance <= maxDistance && distance < closestDistance) {
+                        closestUuid = uuid;
+                        closestDistance = distance;
+                    }
+                }
+            }
+            if (closestUuid == null) {
+                return null;
+            }
+
+            T description;
+            try {
+                description = descriptionReader.apply(closestUuid);
+            } catch (RuntimeException e) {
+                LOG.warn("Description of picture {} can't be read, it is not reused: {}", closestUuid, e.getMessage());
+                return null;
+            }
+            if (description != null) {
+                LOG.debug("Reusing description of picture {} (distance {})", closestUuid, closestDistance);
+                return description;
+            }
+            LOG.debug("Picture {} is no longer described, it is removed from the index", closestUuid);
+            synchronized (this) {
+                Long removed = hashes.remove(closestUuid);
+                if (removed != null) {
+                    unindex(closestUuid, removed);
+                }
+            }
+
+        }
+
+    }
+
+    /**
+     * Adds the perceptual hash of a described picture to the index.
+     *
+     * @param hash The perceptual hash of the picture.
+     * @param uuid The unique identifier of the picture node.
+     */
+    public synchronized void add(long hash, String uuid) {
+        Long previous = put(uuid, hash);
+        if (isPersistent() && (previous == null || previous != hash)) {
+            append(hash, uuid);
+        }
+    }
+
+    /**
+     * Splits the 64 bits of the hashes in as many blocks as the maximum distance plus one.
+     */
+    private void initBlocks() {
+        int blockCount = Math.max(1, Math.min(maxDistance + 1, Long.SIZE));
+        blocks = new ArrayList<>();
+        blockOffsets = new int[blockCount];
+        blockWidths = new int[blockCount];
+        int offset = 0;
+        for (int i = 0; i < blockCount; i++) {
+            blockOffsets[i] = offset;
+            blockWidths[i] = Long.SIZE / blockCount + (i < Long.SIZE % blockCount ? 1 : 0);
+            offset += blockWidths[i];
+            blocks.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Gets the value of a block of a hash.
+     *
+     * @param hash  The perceptual hash.
+     * @param block The index of the block.
+     * @return The bits of the block.
+     */
+    private long getBlock(long hash, int block) {
+        long value = hash >>> blockOffsets[block];
+        return blockWidths[block] == Long.SIZE ? value : value & ((1L << blockWidths[block]) - 1);
+    }
+
+    /**
+     * Gets the pictures sharing at least one block with a hash, the only ones that can be within the maximum distance.
+     *
+     * @param hash The perceptual hash.
+     * @return The unique identifiers of the picture nodes.
+     */
+    private Set<String> getCandidates(long hash) {
+        Set<String> candidates = new HashSet<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            Set<String> uuids = blocks.get(i).get(getBlock(hash, i));
+            if (uuids != null) {
+                candidates.addAll(uuids);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Puts the hash of a picture in the index, replacing its previous hash.
+     *
+     * @param uuid The unique identifier of the picture node.
+     * @param hash The perceptual hash of the picture.
+     * @return The previous hash of the picture, or {@code null} if it was not indexed.
+     */
+    private Long put(String uuid, long hash) {
+        Long previous = hashes.put(uuid, hash);
+        if (previous != null) {
+            unindex(uuid, previous);
+        }
+        for (int i = 0; i < blocks.size(); i++) {
+            blocks.get(i).computeIfAbsent(getBlock(hash, i), block -> new HashSet<>()).add(uuid);
+        }
+        return previous;
+    }
+
+    /**
+     * Removes a picture from the blocks of its hash.
+     *
+     * @param uuid The unique identifier of the picture node.
+     * @param hash The perceptual hash of the picture.
+     */
+    private void unindex(String uuid, long hash) {
+        for (int i = 0; i < blocks.size(); i++) {
+            long block = getBlock(hash, i);
+            Set<String> uuids = blocks.get(i).get(block);
+            if (uuids != null) {
+                uuids.remove(uuid);
+                if (uuids.isEmpty()) {
+                    blocks.get(i).remove(block);
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends an entry to the index file, compacting the file when it has grown beyond twice the index size. Failures
+     * are logged, as the in-memory index is still valid.
+     *
+     * @param hash The perceptual hash of the picture.
+     * @param uuid The unique identifier of the picture node.
+     */
+    private void append(long hash, String uuid) {
+        if (fileLines >= 2 * indexSize) {
+            compact();
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(Path.of(indexFile), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(format(hash, uuid));
+            fileLines++;
+        } catch (IOException e) {
+            LOG.warn("Picture hash for {} can't be written to {}", uuid, indexFile, e);
+        }
+    }
+
+    /**
+     * Rewrites the index file with the entries of the index, replacing the previous file atomically.
+     */
+    private void compact() {
+        List<String> lines = new ArrayList<>();
+        hashes.forEach((uuid, hash) -> lines.add(format(hash, uuid).trim()));
+        try {
+            Path temporaryFile = Path.of(indexFile + ".tmp");
+            Files.write(temporaryFile, lines, StandardCharsets.UTF_8);
+            Files.move(temporaryFile, Path.of(indexFile), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            fileLines = lines.size();
+            LOG.debug("Index file {} has been compacted to {} picture hashes", indexFile, fileLines);
+        } catch (IOException e) {
+            LOG.warn("Index file {} can't be compacted", indexFile, e);
+        }
+    }
+
+    /**
+     * Formats an entry of the index file.
+     *
+     * @param hash The perceptual hash of the picture.
+     * @param uuid The unique identifier of the picture node.
+     * @return The line of the entry, with the line separator.
+     */
+    private static String format(long hash, String uuid) {
+        return String.format("%016x %s%n", hash, uuid);
+    }
+
+    /**
+     * Tells if the index is persisted to a file.
+     *
+     * @return {@code true} if an index file has been configured.
+     */
+    private boolean isPersistent() {
+        return indexFile != null && !indexFile.isBlank();
+    }
+
+}
@@ -0,0 +1,224 @@
+package org.alfresco.genai.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+
+/**
+ * The {@code ImageService} class is a Spring service that prepares pictures before sending them to the GenAI service.
+ * Vision models work with small images, so pictures larger than the configured size are decoded, downsized and
+ * encoded again as JPEG to reduce the upload size and the time spent by the model.
+ *
+ * <p>It also computes perceptual hashes to find near-duplicate pictures that can share the same description. It is
+ * shared by the AI Listener and the AI Applier.
+ */
+@Service
+public class ImageService {
+
+    static final Logger LOG = LoggerFactory.getLogger(ImageService.class);
+
+    /**
+     * Grid used to compute perceptual hashes: 9 columns to compare 8 pairs of neighbours in each of the 8 rows.
+     */
+    static final int HASH_WIDTH = 9;
+    static final int HASH_HEIGHT = 8;
+
+    /**
+     * Size in pixels of the decoded image used to compute perceptual hashes.
+     */
+    static final int HASH_SOURCE_SIZE = 64;
+
+    /**
+     * Maximum width or height in pixels of the pictures sent to the GenAI service obtained from configuration.
+     * A value of 0 sends the original pictures.
+     */
+    @Value("${genai.describe.image.max.size}")
+    int maxSize;
+
+    /**
+     * Quality of the JPEG encoding (from 0.0 to 1.0) for downsized pictures obtained from configuration.
+     */
+    @Value("${genai.describe.image.quality}")
+    float quality;
+
+    /**
+     * Downsizes the picture when its width or height is larger than the configured maximum size. Pictures that are
+     * small enough or that can't be decoded are returned without changes.
+     *
+     * @param pictureFile The original picture file.
+     * @return A new temporary JPEG {@link File} with the downsized picture, to be deleted by the caller, or the original
+     *         picture file.
+     * @throws IOException If an I/O error occurs while reading or writing the picture.
+     */
+    public File resize(File pictureFile) throws IOException {
+
+        if (maxSize <= 0) {
+            return pictureFile;
+        }
+
+        BufferedImage image = read(pictureFile, maxSize);
+        if (image == null) {
+            LOG.debug("Picture format is not supported for resizing, original picture will be used");
+            return pictureFile;
+        }
+        if (Math.max(image.getWidth(), image.getHeight()) <= maxSize) {
+            return pictureFile;
+        }
+
+        BufferedImage resized = scale(image);
+        File resizedFile = Files.createTempFile(null, ".jpg").toFile();
+        writeJpeg(resized, resizedFile);
+        LOG.debug("Picture has been resized from {}x{} to {}x{} pixels",
+                image.getWidth(), image.getHeight(), resized.getWidth(), resized.getHeight());
+        return resizedFile;
+
+    }
+
+    /**
+     * Computes the difference hash (dHash) of the picture. The picture is reduced to 9x8 grey levels and every bit of
+     * the hash tells if a cell is brighter than its right neighbour, so resized, re-saved or slightly different shots
+     * of the same picture produce hashes with a small Hamming distance.
+     *
+     * @param pictureFile The picture file.
+     * @return The 64 bits perceptual hash of the picture, or {@code null} if the picture can't be decoded.
+     * @throws IOException If an I/O error occurs while reading the picture.
+     */
+    public Long getPerceptualHash(File pictureFile) throws IOException {
+
+        BufferedImage image = read(pictureFile, HASH_SOURCE_SIZE);
+        if (image == null) {
+            return null;
+        }
+
+        double[][] grey = new double[HASH_HEIGHT][HASH_WIDTH];
+        int width = image.getWidth();
+        int height = image.getHeight();
+        for (int y = 0; y < HASH_HEIGHT; y++) {
+            int fromY = y * height / HASH_HEIGHT;
+            int toY = Math.max(fromY + 1, (y + 1) * height / HASH_HEIGHT);
+            for (int x = 0; x < HASH_WIDTH; x++) {
+                int fromX = x * width / HASH_WIDTH;
+                int toX = Math.max(fromX + 1, (x + 1) * width / HASH_WIDTH);
+                double sum = 0;
+                for (int py = fromY; py < toY; py++) {
+                    for (int px = fromX; px < toX; px++) {
+                        int rgb = image.getRGB(px, py);
+                        sum += 0.299 * ((rgb >> 16) & 0xff) + 0.587 * ((rgb >> 8) & 0xff) + 0.114 * (rgb & 0xff);
+                    }
+                }
+                grey[y][x] = sum / ((toY - fromY) * (toX - fromX));
+            }
+        }
+
+        long hash = 0;
+        for (int y = 0; y < HASH_HEIGHT; y++) {
+            for (int x = 0; x < HASH_WIDTH - 1; x++) {
+                hash = (hash << 1) | (grey[y][x] > grey[y][x + 1] ? 1 : 0);
+            }
+        }
+        return hash;
+
+    }
+
+    /**
+     * Decodes the picture skipping pixels, so the longest side of the decoded image is at least twice the size
+     * requested. This avoids holding full size camera pictures in memory.
+     *
+     * @param pictureFile The picture file.
+     * @param size        The size in pixels the decoded image is going to be reduced to.
+     * @return The decoded image, or {@code null} if the picture format is not supported.
+     * @throws IOException If an I/O error occurs while reading the picture.
+     */
+    private BufferedImage read(File pictureFile, int size) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(pictureFile)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, longestSide / (2 * size));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales the image to the configured maximum size, halving the dimensions in several steps to keep the details
+     * that a single bilinear step would lose.
+     *
+     * @param image The image to be scaled.
+     * @return An RGB image that fits in the configured maximum size.
+     */
+    private BufferedImage scale(BufferedImage image) {
+
+        double ratio = (double) maxSize / Math.max(image.getWidth(), image.getHeight());
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no transparency, so transparent areas are painted in white
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(current, 0, 0, width, height, null);
+            graphics.dispose();
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+
+        return current;
+    }
+
+    /**
+     * Encodes the image as JPEG with the configured quality.
+     *
+     * @param image The image to be encoded.
+     * @param file  The file to write the JPEG picture to.
+     * @throws IOException If an I/O error occurs while writing the picture.
+     */
+    private void writeJpeg(BufferedImage image, File file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(file)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+package org.alfresco.genai.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.jms.activemq.ActiveMQConnectionFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+/**
+ * The {@code EventConsumerConfiguration} class is a Spring configuration tuning how the listener consumes repository
+ * events from ActiveMQ.
+ *
+ * <p>Listener containers use transacted sessions, so an event is acknowledged only when every handler has returned:
+ * by then the work has been recorded in the local work journal, or the event has been discarded by the handler
+ * filters. When a handler fails, the session is rolled back and the broker redelivers the event according to the
+ * redelivery policy.
+ *
+ * <p>The prefetch limits the events buffered by each consumer, so a slow instance doesn't hold events that other
+ * consumers could take. Consumer concurrency is only applied to queues: every consumer of a topic receives every event,
+ * so topic events are spread across instances by node partitioning instead.
+ */
+@Configuration
+public class EventConsumerConfiguration {
+
+    static final Logger LOG = LoggerFactory.getLogger(EventConsumerConfiguration.class);
+
+    /**
+     * Maximum number of events sent to a consumer before it acknowledges them obtained from configuration.
+     */
+    @Value("${content.service.events.prefetch}")
+    int prefetch;
+
+    /**
+     * Maximum number of redeliveries of an event whose handling failed obtained from configuration.
+     */
+    @Value("${content.service.events.redelivery.max}")
+    int maximumRedeliveries;
+
+    /**
+     * Time in milliseconds before the first redelivery of an event obtained from configuration, doubled on every
+     * following redelivery.
+     */
+    @Value("${content.service.events.redelivery.delay}")
+    long redeliveryDelay;
+
+    /**
+     * Configures the prefetch and the redelivery policy of the ActiveMQ connection factory.
+     *
+     * @return The customizer of the connection factory.
+     */
+    @Bean
+    public ActiveMQConnectionFactoryCustomizer eventConsumerConnectionFactoryCustomizer() {
+        return connectionFactory -> {
+            connectionFactory.getPrefetchPolicy().setTopicPrefetch(prefetch);
+            connectionFactory.getPrefetchPolicy().setQueuePrefetch(prefetch);
+            connectionFactory.getRedeliveryPolicy().setMaximumRedeliveries(maximumRedeliveries);
+            connectionFactory.getRedeliveryPolicy().setInitialRedeliveryDelay(redeliveryDelay);
+            connectionFactory.getRedeliveryPolicy().setRedeliveryDelay(redeliveryDelay);
+            connectionFactory.getRedeliveryPolicy().setUseExponentialBackOff(true);
+        };
+    }
+
+    /**
+     * Configures the acknowledgement mode and the concurrency of the listener containers consuming events.
+     *
+     * @param transacted  {@code true} to acknowledge events when handlers return, {@code false} to keep the default
+     *                    acknowledgement of the containers.
+     * @param concurrency Number of concurrent consumers of a queue.
+     * @return The post processor of the listener containers.
+     */
+    @Bean
+    public static BeanPostProcessor eventConsumerContainerPostProcessor(
+            @Value("${content.service.events.transacted}") boolean transacted,
+            @Value("${content.service.events.concurrency}") int concurrency) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof DefaultMessageListenerContainer container) {
+                    container.setSessionTransacted(transacted);
+                    if (!container.isPubSubDomain()) {
+                        container.setConcurrentConsumers(concurrency);
+                        container.setMaxConcurrentConsumers(concurrency);
+                    }
+                    LOG.info("Listener container {} is {} with {} consumers", beanName,
+                            transacted ? "transacted" : "not transacted",
+                            container.isPubSubDomain() ? 1 : concurrency);
+                }
+                return bean;
+            }
+        };
+    }
+
+}
@@ -1,17 +1,33 @@
 package org.alfresco.genai.event;
 
+import jakarta.annotation.PostConstruct;
 import org.alfresco.event.sdk.handling.handler.EventHandler;
 import org.alfresco.event.sdk.model.v1.model.DataAttributes;
 import org.alfresco.event.sdk.model.v1.model.NodeResource;
 import org.alfresco.event.sdk.model.v1.model.RepoEvent;
 import org.alfresco.event.sdk.model.v1.model.Resource;
+import org.alfresco.genai.model.WorkItem;
+import org.alfresco.genai.service.AiOperationService;
+import org.alfresco.genai.service.AiOperationService.Operation;
+import org.alfresco.genai.service.DeadLetterStore;
+import org.alfresco.genai.service.EventDebouncer;
+import org.alfresco.genai.service.FreshnessTracker;
+import org.alfresco.genai.service.FreshnessTracker.Trace;
 import org.alfresco.genai.service.GenAiClient;
+import org.alfresco.genai.service.JobRegistry;
+import org.alfresco.genai.service.JobRegistry.Job;
 import org.alfresco.genai.service.NodeUpdateService;
+import org.alfresco.genai.service.PartitionService;
+import org.alfresco.genai.service.ProcessingStatusService;
 import org.alfresco.genai.service.RenditionService;
+import org.alfresco.genai.service.SupersededException;
+import org.alfresco.genai.service.UpdateLedger;
+import org.alfresco.genai.service.WorkJournal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.io.File;
 import java.io.IOException;
 
 /**
@@ -23,6 +39,9 @@ import java.io.IOException;
  * <p>The class includes autowired instances of essential services, such as {@link GenAiClient}, {@link RenditionService},
  * and {@link NodeUpdateService}, required for interacting with external services and updating document nodes.
  *
+ * <p>PDF and text documents are sent to the GenAI service with their original content, so no PDF rendition is requested
+ * for them and the operation doesn't wait for the rendition creation event.
+ *
  * <p>Concrete subclasses should extend this class and provide specific event handling logic for their targeted content types.
  *
  */
@@ -31,7 +50,7 @@ public abstract class AbstractContentTypeHandler implements EventHandler {
     /**
      * Logger for logging information and error messages.
      */
-    private static final Logger LOG = LoggerFactory.getLogger(AbstractContentTypeHandler.class);
+    static final Logger LOG = LoggerFactory.getLogger(AbstractContentTypeHandler.class);
 
     /**
      * Autowired instance of {@link GenAiClient} for interacting with the GenAI service.
@@ -52,26 +71,180 @@ public abstract class AbstractContentTypeHandler implements EventHandler {
     NodeUpdateService nodeUpdateService;
 
     /**
-     * Handles the node-related event by defining common logic for content type-specific events. It checks if a PDF
-     * rendition is already created for the document. If yes, it initiates the document summarization process; otherwise,
-     * it requests the creation of a PDF rendition.
+     * Autowired instance of {@link UpdateLedger} for ignoring the events produced by the listener's own updates.
+     */
+    @Autowired
+    UpdateLedger updateLedger;
+
+    /**
+     * Autowired instance of {@link JobRegistry} for cancelling the operation when newer content arrives.
+     */
+    @Autowired
+    JobRegistry jobRegistry;
+
+    /**
+     * Autowired instance of {@link ProcessingStatusService} for skipping nodes taken by other processes.
+     */
+    @Autowired
+    ProcessingStatusService processingStatusService;
+
+    /**
+     * Autowired instance of {@link EventDebouncer} for collapsing bursts of events on the same document.
+     */
+    @Autowired
+    EventDebouncer eventDebouncer;
+
+    /**
+     * Autowired instance of {@link WorkJournal} for replaying the work not finished before a restart.
+     */
+    @Autowired
+    WorkJournal workJournal;
+
+    /**
+     * Autowired instance of {@link DeadLetterStore} for parking failed work to be redelivered later.
+     */
+    @Autowired
+    DeadLetterStore deadLetterStore;
+
+    /**
+     * Autowired instance of {@link PartitionService} for ignoring the events of nodes owned by other listener instances.
+     */
+    @Autowired
+    PartitionService partitionService;
+
+    /**
+     * Autowired instance of {@link AiOperationService} for applying the GenAI operation of the handler.
+     */
+    @Autowired
+    AiOperationService aiOperationService;
+
+    /**
+     * Autowired instance of {@link FreshnessTracker} for measuring the lag from the event to the update of the document.
+     */
+    @Autowired
+    FreshnessTracker freshnessTracker;
+
+    /**
+     * Handles the node-related event by defining common logic for content type-specific events. The operation is
+     * debounced by node, so a burst of events on the same document (creation and updates from Share) is processed once
+     * when the burst settles. Events of documents owned by another listener instance are ignored.
      *
      * @param repoEvent The event containing information about the node.
      */
     @Override
     public void handleEvent(RepoEvent<DataAttributes<Resource>> repoEvent) {
-        String uuid = ((NodeResource) repoEvent.getData().getResource()).getId();
-        if (renditionService.pdfRenditionIsCreated(uuid)) {
-            LOG.info("Summarizing document {}", uuid);
+        NodeResource nodeResource = (NodeResource) repoEvent.getData().getResource();
+        String uuid = nodeResource.getId();
+        if (!partitionService.isOwned(uuid)) {
+            return;
+        }
+        String mimeType = nodeResource.getContent() == null ? null : nodeResource.getContent().getMimeType();
+        if (nodeResource.getPrimaryHierarchy() != null && !nodeResource.getPrimaryHierarchy().isEmpty()) {
+            nodeUpdateService.setPrimaryParentId(uuid, nodeResource.getPrimaryHierarchy().get(0));
+        }
+        submit(workJournal.accept(new WorkItem()
+                .type(getOperation().name())
+                .uuid(uuid)
+                .mimeType(mimeType)
+                .version(repoEvent.getTime().toInstant().toEpochMilli())));
+    }
+
+    /**
+     * Registers the handler to replay the work of its operation not finished before a restart.
+     */
+    @PostConstruct
+    public void registerWork() {
+        workJournal.register(getOperation().name(), this::submit);
+    }
+
+    /**
+     * Submits the work to be processed once the burst of events on the document settles, recording it as finished in
+     * the journal whatever the result is, once the buffered update of the document has been written.
+     *
+     * @param workItem The work accepted for the document.
+     */
+    private void submit(WorkItem workItem) {
+        eventDebouncer.submit(workItem.getUuid(), workItem.getKey(), () -> {
             try {
-                nodeUpdateService.updateNodeSummary(uuid, genAiClient.getSummary(renditionService.getRenditionContent(uuid)));
-            } catch (IOException e) {
-                LOG.error(e.getMessage(), e);
+                process(workItem);
+            } finally {
+                nodeUpdateService.afterFlush(workItem.getUuid(), () -> workJournal.complete(workItem));
+            }
+        });
+    }
+
+    /**
+     * Applies the GenAI operation of the handler to the document. PDF and text documents are processed directly from
+     * their original content. For other documents, it checks if a PDF rendition is already created. If yes, it applies
+     * the GenAI operation to the rendition; otherwise, it requests the creation of a PDF rendition. The operation is
+     * skipped when the document already has its result for the same content, before taking the document, and it is
+     * cancelled when newer content of the document arrives while it is in progress. Documents being processed by
+     * another process are skipped. Failed work is parked to be redelivered later.
+     *
+     * @param workItem The work accepted for the document.
+     */
+    private void process(WorkItem workItem) {
+        String uuid = workItem.getUuid();
+        String mimeType = workItem.getMimeType();
+        String family = getOperation().name();
+        boolean renditionBypassed = renditionService.isRenditionBypassed(mimeType);
+        boolean leased = false;
+        String status = ProcessingStatusService.FAILED;
+        Job job = jobRegistry.start(uuid, workItem.getVersion());
+        Trace trace = freshnessTracker.start(family, uuid, workItem.getVersion());
+        try {
+            File file = renditionBypassed ? renditionService.getNodeContent(uuid) : null;
+            String contentHash = renditionService.getContentHash(uuid, file);
+            if (aiOperationService.isUpToDate(getOperation(), uuid, contentHash)) {
+                LOG.info("Content of document {} has not changed, {} is skipped", uuid, getOperation());
+                status = ProcessingStatusService.DONE;
+                return;
+            }
+            if (!processingStatusService.start(uuid, family)) {
+                return;
+            }
+            leased = true;
+            String fileMimeType;
+            if (renditionBypassed) {
+                fileMimeType = mimeType;
+            } else if (renditionService.pdfRenditionIsCreated(uuid)) {
+                file = renditionService.getRenditionContent(uuid);
+                fileMimeType = RenditionService.PDF_MIME_TYPE;
+            } else {
+                LOG.info("PDF Rendition has been requested for document {}", uuid);
+                renditionService.createPdfRendition(uuid);
+                freshnessTracker.defer(trace);
+                status = ProcessingStatusService.PENDING;
+                return;
+            }
+            trace.downloaded();
+            freshnessTracker.await(trace);
+            aiOperationService.apply(getOperation(), uuid, file, fileMimeType, contentHash);
+            status = ProcessingStatusService.DONE;
+        } catch (SupersededException e) {
+            LOG.info("{} of document {} has been discarded as newer content has arrived", getOperation(), uuid);
+            freshnessTracker.discard(trace);
+            status = ProcessingStatusService.PENDING;
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Error updating document {}", uuid, e);
+            freshnessTracker.discard(trace);
+            deadLetterStore.park(workItem, e);
+        } finally {
+            jobRegistry.finish(job);
+            if (leased) {
+                processingStatusService.finish(uuid, family, status);
+            }
+            if (!ProcessingStatusService.FAILED.equals(status)) {
+                deadLetterStore.remove(workItem);
             }
-            LOG.info("Document {} has been updated with summary and tag", uuid);
-        } else {
-            LOG.info("PDF Rendition has been requested for document {}", uuid);
-            renditionService.createPdfRendition(uuid);
         }
     }
+
+    /**
+     * Gets the GenAI operation applied by the handler to the document content.
+     *
+     * @return The GenAI operation.
+     */
+    protected abstract Operation getOperation();
+
 }
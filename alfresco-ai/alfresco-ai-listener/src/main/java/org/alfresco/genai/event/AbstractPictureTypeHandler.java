@@ -1,21 +1,36 @@
 package org.alfresco.genai.event;
 
-import org.alfresco.core.handler.NodesApi;
+import jakarta.annotation.PostConstruct;
 import org.alfresco.event.sdk.handling.handler.EventHandler;
 import org.alfresco.event.sdk.model.v1.model.DataAttributes;
 import org.alfresco.event.sdk.model.v1.model.NodeResource;
 import org.alfresco.event.sdk.model.v1.model.RepoEvent;
 import org.alfresco.event.sdk.model.v1.model.Resource;
+import org.alfresco.genai.model.WorkItem;
+import org.alfresco.genai.model.Description;
+import org.alfresco.genai.service.DeadLetterStore;
+import org.alfresco.genai.service.DescriptionIndex;
+import org.alfresco.genai.service.EventDebouncer;
+import org.alfresco.genai.service.FreshnessTracker;
+import org.alfresco.genai.service.FreshnessTracker.Trace;
 import org.alfresco.genai.service.GenAiClient;
+import org.alfresco.genai.service.ImageService;
+import org.alfresco.genai.service.JobRegistry;
+import org.alfresco.genai.service.JobRegistry.Job;
 import org.alfresco.genai.service.NodeUpdateService;
+import org.alfresco.genai.service.PartitionService;
+import org.alfresco.genai.service.ProcessingStatusService;
 import org.alfresco.genai.service.RenditionService;
+import org.alfresco.genai.service.RoleService;
+import org.alfresco.genai.service.SupersededException;
+import org.alfresco.genai.service.UpdateLedger;
+import org.alfresco.genai.service.WorkJournal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 
 /**
  * The {@code AbstractContentTypeHandler} class is an abstract base class that implements the {@link EventHandler} interface.
@@ -36,6 +51,11 @@ public abstract class AbstractPictureTypeHandler implements EventHandler {
      */
     private static final Logger LOG = LoggerFactory.getLogger(AbstractPictureTypeHandler.class);
 
+    /**
+     * Type of work recorded in the journal for picture descriptions.
+     */
+    static final String DESCRIPTION_WORK = "DESCRIPTION";
+
     /**
      * Autowired instance of {@link GenAiClient} for interacting with the GenAI service.
      */
@@ -54,31 +74,176 @@ public abstract class AbstractPictureTypeHandler implements EventHandler {
     @Autowired
     NodeUpdateService nodeUpdateService;
 
+    /**
+     * Autowired instance of {@link UpdateLedger} for ignoring the events produced by the listener's own updates.
+     */
+    @Autowired
+    UpdateLedger updateLedger;
+
+    /**
+     * Autowired instance of {@link JobRegistry} for cancelling the description when newer content arrives.
+     */
+    @Autowired
+    JobRegistry jobRegistry;
+
+    /**
+     * Autowired instance of {@link ProcessingStatusService} for skipping nodes taken by other processes.
+     */
+    @Autowired
+    ProcessingStatusService processingStatusService;
+
+    /**
+     * Autowired instance of {@link EventDebouncer} for collapsing bursts of events on the same picture.
+     */
+    @Autowired
+    EventDebouncer eventDebouncer;
+
+    /**
+     * Autowired instance of {@link WorkJournal} for replaying the work not finished before a restart.
+     */
     @Autowired
-    NodesApi nodesApi;
+    WorkJournal workJournal;
 
     /**
-     * Handles the node-related event by defining common logic for picture type-specific events.
+     * Autowired instance of {@link DeadLetterStore} for parking failed work to be redelivered later.
+     */
+    @Autowired
+    DeadLetterStore deadLetterStore;
+
+    /**
+     * Autowired instance of {@link PartitionService} for ignoring the events of nodes owned by other listener instances.
+     */
+    @Autowired
+    PartitionService partitionService;
+
+    /**
+     * Autowired instance of {@link ImageService} for downsizing pictures before sending them to the GenAI service.
+     */
+    @Autowired
+    ImageService imageService;
+
+    /**
+     * Autowired instance of {@link DescriptionIndex} for reusing the description of near-duplicate pictures.
+     */
+    @Autowired
+    DescriptionIndex descriptionIndex;
+
+    /**
+     * Autowired instance of {@link FreshnessTracker} for measuring the lag from the event to the update of the picture.
+     */
+    @Autowired
+    FreshnessTracker freshnessTracker;
+
+    /**
+     * Handles the node-related event by defining common logic for picture type-specific events. The description of a
+     * near-duplicate picture is reused when available, otherwise the picture is downsized before requesting the
+     * description to the GenAI service. The description is cancelled when newer content of the picture arrives while
+     * it is in progress, and a burst of events on the same picture is described once when the burst settles.
      *
      * @param repoEvent The event containing information about the node.
      */
     @Override
     public void handleEvent(RepoEvent<DataAttributes<Resource>> repoEvent) {
-        
-        String uuid = ((NodeResource) repoEvent.getData().getResource()).getId();
+        NodeResource nodeResource = (NodeResource) repoEvent.getData().getResource();
+        String uuid = nodeResource.getId();
+        if (!partitionService.isOwned(uuid)) {
+            return;
+        }
+        submit(workJournal.accept(new WorkItem()
+                .type(DESCRIPTION_WORK)
+                .uuid(uuid)
+                .version(repoEvent.getTime().toInstant().toEpochMilli())));
+    }
+
+    /**
+     * Registers the handler to replay the descriptions not finished before a restart.
+     */
+    @PostConstruct
+    public void registerWork() {
+        workJournal.register(DESCRIPTION_WORK, this::submit);
+    }
+
+    /**
+     * Submits the description to be processed once the burst of events on the picture settles, recording it as
+     * finished in the journal whatever the result is, once the buffered update of the picture has been written.
+     *
+     * @param workItem The work accepted for the picture.
+     */
+    private void submit(WorkItem workItem) {
+        eventDebouncer.submit(workItem.getUuid(), workItem.getKey(), () -> {
+            try {
+                describe(workItem);
+            } finally {
+                nodeUpdateService.afterFlush(workItem.getUuid(), () -> workJournal.complete(workItem));
+            }
+        });
+    }
+
+    /**
+     * Describes the picture and updates the picture node with the description. Failed work is parked to be
+     * redelivered later. The temporary picture files are deleted whatever the result is.
+     *
+     * @param workItem The work accepted for the picture.
+     */
+    private void describe(WorkItem workItem) {
+
+        String uuid = workItem.getUuid();
+
         LOG.debug("Describing picture {}", uuid);
 
+        boolean leased = false;
+        File pictureFile = null;
+        File resizedFile = null;
+        String status = ProcessingStatusService.FAILED;
+        Job job = jobRegistry.start(uuid, workItem.getVersion());
+        Trace trace = freshnessTracker.start(DESCRIPTION_WORK, uuid, workItem.getVersion());
         try {
 
-            byte[] fileContent = nodesApi.getNodeContent(uuid, true, null, null).getBody().getContentAsByteArray();
-            File pictureFile = Files.createTempFile(null, null).toFile();
-            Files.write(pictureFile.toPath(), fileContent);
+            if (!processingStatusService.start(uuid, RoleService.DESCRIPTION)) {
+                return;
+            }
+            leased = true;
+            pictureFile = renditionService.getNodeContent(uuid);
+            trace.downloaded();
+            freshnessTracker.await(trace);
+            Long hash = imageService.getPerceptualHash(pictureFile);
+
+            Description description = hash == null ? null : descriptionIndex.find(hash, nodeUpdateService::getNodeDescription);
+            if (description == null) {
+                resizedFile = imageService.resize(pictureFile);
+                description = genAiClient.getDescription(resizedFile);
+            }
 
-            nodeUpdateService.updateNodeDescription(uuid, genAiClient.getDescription(pictureFile));
+            nodeUpdateService.updateNodeDescription(uuid, description);
+            if (hash != null) {
+                descriptionIndex.add(hash, uuid);
+            }
             LOG.debug("Picture {} has been updated with description", uuid);
+            status = ProcessingStatusService.DONE;
 
-        } catch (IOException e) {
-            e.printStackTrace();
+        } catch (SupersededException e) {
+            LOG.info("Description of picture {} has been discarded as newer content has arrived", uuid);
+            freshnessTracker.discard(trace);
+            status = ProcessingStatusService.PENDING;
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Error describing picture {}", uuid, e);
+            freshnessTracker.discard(trace);
+            deadLetterStore.park(workItem, e);
+        } finally {
+            // The downloaded and downsized pictures are temporary files
+            if (resizedFile != null) {
+                resizedFile.delete();
+            }
+            if (pictureFile != null) {
+                pictureFile.delete();
+            }
+            jobRegistry.finish(job);
+            if (leased) {
+                processingStatusService.finish(uuid, RoleService.DESCRIPTION, status);
+            }
+            if (!ProcessingStatusService.FAILED.equals(status)) {
+                deadLetterStore.remove(workItem);
+            }
         }
     }
 
@@ -0,0 +1,29 @@
+package org.alfresco.genai.event;
+
+import org.springframework.context.annotation.Conditional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The {@code ConditionalOnOperation} annotation registers a handler only when its family of GenAI operations is
+ * enabled in the role of the listener instance, as configured by {@code content.service.operations}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Conditional(OnOperationCondition.class)
+public @interface ConditionalOnOperation {
+
+    /**
+     * The operation family of the handler, one of the family constants of
+     * {@link org.alfresco.genai.service.RoleService} like {@code RoleService.SUMMARY}.
+     *
+     * @return The operation family.
+     */
+    String value();
+
+}
@@ -4,6 +4,8 @@ import org.alfresco.event.sdk.handling.filter.EventFilter;
 import org.alfresco.event.sdk.handling.filter.NodeAspectFilter;
 import org.alfresco.event.sdk.handling.filter.NodeTypeFilter;
 import org.alfresco.event.sdk.handling.handler.OnNodeCreatedEventHandler;
+import org.alfresco.genai.service.AiOperationService.Operation;
+import org.alfresco.genai.service.RoleService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -16,6 +18,7 @@ import org.springframework.stereotype.Component;
  * creation events. The filter criteria include the presence of the classified aspect and the "cm:content" node type.
  */
 @Component
+@ConditionalOnOperation(RoleService.CLASSIFY)
 public class ContentClassifyCreatedHandler extends AbstractContentTypeHandler implements OnNodeCreatedEventHandler {
 
     /**
@@ -35,4 +38,14 @@ public class ContentClassifyCreatedHandler extends AbstractContentTypeHandler im
         return NodeAspectFilter.of(classifyAspect)
                 .and(NodeTypeFilter.of("cm:content"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the GenAI operation applied by the handler: classifies the document.
+     *
+     * @return The {@link Operation#CLASSIFY} operation.
+     */
+    @Override
+    protected Operation getOperation() {
+        return Operation.CLASSIFY;
+    }
+}
@@ -2,6 +2,8 @@ package org.alfresco.genai.event;
 
 import org.alfresco.event.sdk.handling.filter.*;
 import org.alfresco.event.sdk.handling.handler.OnNodeUpdatedEventHandler;
+import org.alfresco.genai.service.AiOperationService.Operation;
+import org.alfresco.genai.service.RoleService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -15,6 +17,7 @@ import org.springframework.stereotype.Component;
  * changes, or the addition of the classified aspect.
  */
 @Component
+@ConditionalOnOperation(RoleService.CLASSIFY)
 public class ContentClassifyUpdatedHandler extends AbstractContentTypeHandler implements OnNodeUpdatedEventHandler {
 
     /**
@@ -27,6 +30,8 @@ public class ContentClassifyUpdatedHandler extends AbstractContentTypeHandler im
      * Specifies the event filter to determine which node update events this handler should process. The filter criteria
      * include the presence of the classified aspect, the "cm:content" node type, content changes, or the addition of the
      * classified aspect.
+     * Events produced by the listener's own updates, like the addition of the aspect when storing the result, are
+     * ignored.
      *
      * @return An {@link EventFilter} representing the filter criteria for node update events.
      */
@@ -35,6 +40,17 @@ public class ContentClassifyUpdatedHandler extends AbstractContentTypeHandler im
         return NodeAspectFilter.of(classifyAspect)
                 .and(NodeTypeFilter.of("cm:content"))
                 .and(ContentChangedFilter.get())
-                .or(AspectAddedFilter.of(classifyAspect));
+                .or(AspectAddedFilter.of(classifyAspect))
+                .and(repoEvent -> !updateLedger.isOwnUpdate(repoEvent));
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the GenAI operation applied by the handler: classifies the document.
+     *
+     * @return The {@link Operation#CLASSIFY} operation.
+     */
+    @Override
+    protected Operation getOperation() {
+        return Operation.CLASSIFY;
+    }
+}
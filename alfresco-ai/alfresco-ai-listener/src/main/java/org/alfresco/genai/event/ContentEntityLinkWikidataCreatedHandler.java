@@ -2,6 +2,8 @@ package org.alfresco.genai.event;
 
 import org.alfresco.event.sdk.handling.filter.*;
 import org.alfresco.event.sdk.handling.handler.OnNodeCreatedEventHandler;
+import org.alfresco.genai.service.AiOperationService.Operation;
+import org.alfresco.genai.service.RoleService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -14,6 +16,7 @@ import org.springframework.stereotype.Component;
  * creation events. The filter criteria include the presence of the Wikidata entitylinks aspect and the "cm:content" node type.
  */
 @Component
+@ConditionalOnOperation(RoleService.ENTITYLINKWIKIDATA)
 public class ContentEntityLinkWikidataCreatedHandler extends AbstractContentTypeHandler implements OnNodeCreatedEventHandler {
 
     /**
@@ -33,4 +36,14 @@ public class ContentEntityLinkWikidataCreatedHandler extends AbstractContentType
         return NodeAspectFilter.of(entitylinksWikidataAspect)
                 .and(NodeTypeFilter.of("cm:content"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the GenAI operation applied by the handler: links the document entities to Wikidata.
+     *
+     * @return The {@link Operation#ENTITYLINKWIKIDATA} operation.
+     */
+    @Override
+    protected Operation getOperation() {
+        return Operation.ENTITYLINKWIKIDATA;
+    }
+}
@@ -2,6 +2,8 @@ package org.alfresco.genai.event;
 
 import org.alfresco.event.sdk.handling.filter.*;
 import org.alfresco.event.sdk.handling.handler.OnNodeUpdatedEventHandler;
+import org.alfresco.genai.service.AiOperationService.Operation;
+import org.alfresco.genai.service.RoleService;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Value;
 
@@ -15,6 +17,7 @@ import org.springframework.beans.factory.annotation.Value;
  * changes, or the addition of the summary aspect.
  */
 @Component
+@ConditionalOnOperation(RoleService.SUMMARY)
 public class ContentSummaryUpdatedHandler extends AbstractContentTypeHandler implements OnNodeUpdatedEventHandler {
 
     /**
@@ -27,6 +30,8 @@ public class ContentSummaryUpdatedHandler extends AbstractContentTypeHandler imp
      * Specifies the event filter to determine which node update events this handler should process. The filter criteria
      * include the presence of the summary aspect, the "cm:content" node type, content changes, or the addition of the
      * summary aspect.
+     * Events produced by the listener's own updates, like the addition of the aspect when storing the result, are
+     * ignored.
      *
      * @return An {@link EventFilter} representing the filter criteria for node update events.
      */
@@ -35,6 +40,17 @@ public class ContentSummaryUpdatedHandler extends AbstractContentTypeHandler imp
         return NodeAspectFilter.of(summaryAspect)
                 .and(NodeTypeFilter.of("cm:content"))
                 .and(ContentChangedFilter.get())
-                .or(AspectAddedFilter.of(summaryAspect));
+                .or(AspectAddedFilter.of(summaryAspect))
+                .and(repoEvent -> !updateLedger.isOwnUpdate(repoEvent));
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the GenAI operation applied by the handler: summarizes the document.
+     *
+     * @return The {@link Operation#SUMMARY} operation.
+     */
+    @Override
+    protected Operation getOperation() {
+        return Operation.SUMMARY;
+    }
+}
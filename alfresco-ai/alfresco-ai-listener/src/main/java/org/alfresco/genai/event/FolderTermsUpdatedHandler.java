@@ -0,0 +1,82 @@
+package org.alfresco.genai.event;
+
+import org.alfresco.event.sdk.handling.filter.AspectRemovedFilter;
+import org.alfresco.event.sdk.handling.filter.EventFilter;
+import org.alfresco.event.sdk.handling.filter.PropertyChangedFilter;
+import org.alfresco.event.sdk.handling.handler.OnNodeUpdatedEventHandler;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.alfresco.event.sdk.model.v1.model.Resource;
+import org.alfresco.genai.service.NodeUpdateService;
+import org.alfresco.genai.service.RoleService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code FolderTermsUpdatedHandler} class is a Spring component responsible for handling events triggered upon the
+ * update of the terms for classification of a folder. It implements the {@link OnNodeUpdatedEventHandler} interface to
+ * keep the terms cached by {@link NodeUpdateService} up to date, so classifying documents doesn't require reading the
+ * parent folder every time.
+ *
+ */
+@Component
+@ConditionalOnOperation(RoleService.CLASSIFY)
+public class FolderTermsUpdatedHandler implements OnNodeUpdatedEventHandler {
+
+    /**
+     * Logger for logging information and error messages.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(FolderTermsUpdatedHandler.class);
+
+    /**
+     * Aspect name storing the terms for classification of a folder.
+     */
+    @Value("${content.service.classifiable.aspect}")
+    private String classifiableAspect;
+
+    /**
+     * Name of the property that holds the terms for classification.
+     */
+    @Value("${content.service.classify.terms.property}")
+    private String termsProperty;
+
+    /**
+     * Autowired instance of {@link NodeUpdateService} holding the cached terms.
+     */
+    @Autowired
+    private NodeUpdateService nodeUpdateService;
+
+    /**
+     * Handles the node update event triggered by the system when the terms of a folder are updated or removed,
+     * replacing the cached terms with the ones included in the event.
+     *
+     * @param repoEvent The event containing information about the updated folder.
+     */
+    @Override
+    public void handleEvent(RepoEvent<DataAttributes<Resource>> repoEvent) {
+
+        NodeResource nodeResource = (NodeResource) repoEvent.getData().getResource();
+        String uuid = nodeResource.getId();
+        nodeUpdateService.setTermList(uuid,
+                nodeResource.getProperties() == null ? null : nodeResource.getProperties().get(termsProperty));
+        LOG.debug("Terms for classification of folder {} have been refreshed", uuid);
+
+    }
+
+    /**
+     * Specifies the event filter to determine which node update events this handler should process. In this case,
+     * the filter is based on changes of the property specified by {@code termsProperty} or the removal of the
+     * {@code classifiableAspect}.
+     *
+     * @return An {@link EventFilter} representing the filter criteria for node update events.
+     */
+    @Override
+    public EventFilter getEventFilter() {
+        return PropertyChangedFilter.of(termsProperty).or(AspectRemovedFilter.of(classifiableAspect));
+    }
+
+}
@@ -0,0 +1,78 @@
+package org.alfresco.genai.event;
+
+import org.alfresco.event.sdk.handling.filter.EventFilter;
+import org.alfresco.event.sdk.handling.filter.NodeTypeFilter;
+import org.alfresco.event.sdk.handling.handler.OnNodeCreatedEventHandler;
+import org.alfresco.event.sdk.handling.handler.OnNodeDeletedEventHandler;
+import org.alfresco.event.sdk.handling.handler.OnNodeUpdatedEventHandler;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.EventType;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.alfresco.event.sdk.model.v1.model.Resource;
+import org.alfresco.genai.service.JobRegistry;
+import org.alfresco.genai.service.NodeMetadataCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * The {@code NodeMetadataHandler} class is a Spring component receiving every node creation, update and deletion
+ * event to keep the {@link NodeMetadataCache} up to date. Handlers of rendition events use that cache to check the
+ * aspects of the rendered document without requesting the repository for every rendition.
+ *
+ * <p>Events including new content also cancel the GenAI jobs still working on previous content of the node.
+ *
+ */
+@Component
+public class NodeMetadataHandler implements OnNodeCreatedEventHandler, OnNodeUpdatedEventHandler, OnNodeDeletedEventHandler {
+
+    /**
+     * Autowired instance of {@link NodeMetadataCache} to be refreshed.
+     */
+    @Autowired
+    NodeMetadataCache nodeMetadataCache;
+
+    /**
+     * Autowired instance of {@link JobRegistry} to cancel the jobs working on outdated content.
+     */
+    @Autowired
+    JobRegistry jobRegistry;
+
+    /**
+     * Specifies the event types handled by this component, as it implements the handler interfaces of every node
+     * event type.
+     *
+     * @return The node created, updated and deleted event types.
+     */
+    @Override
+    public Set<EventType> getHandledEventTypes() {
+        return Set.of(EventType.NODE_CREATED, EventType.NODE_UPDATED, EventType.NODE_DELETED);
+    }
+
+    /**
+     * Handles the node event by refreshing the cached metadata of the node. When the event includes new content, the
+     * GenAI jobs in progress for previous content of the node are cancelled.
+     *
+     * @param repoEvent The event containing information about the node.
+     */
+    @Override
+    public void handleEvent(RepoEvent<DataAttributes<Resource>> repoEvent) {
+        nodeMetadataCache.update(repoEvent);
+        if (nodeMetadataCache.changesContent(repoEvent)) {
+            jobRegistry.supersede(repoEvent.getData().getResource().getId(), repoEvent.getTime().toInstant().toEpochMilli());
+        }
+    }
+
+    /**
+     * Specifies the event filter to determine which node events this handler should process. Every node is
+     * processed except renditions, which are never the target of a GenAI operation.
+     *
+     * @return An {@link EventFilter} representing the filter criteria for node events.
+     */
+    @Override
+    public EventFilter getEventFilter() {
+        return NodeTypeFilter.of("cm:thumbnail").negate();
+    }
+
+}
@@ -0,0 +1,37 @@
+package org.alfresco.genai.event;
+
+import org.alfresco.genai.service.RoleService;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import java.util.Map;
+
+/**
+ * The {@code OnOperationCondition} class is the Spring condition of {@link ConditionalOnOperation}, matching when the
+ * operation family of the handler is enabled in the role of the listener instance.
+ */
+class OnOperationCondition implements Condition {
+
+    /**
+     * Checks the operation family of the annotated handler against the configured role.
+     *
+     * @param context  The condition context providing the configuration.
+     * @param metadata The metadata of the annotated handler.
+     * @return {@code true} if the handler has to be registered, {@code false} otherwise.
+     * @throws IllegalStateException If the handler is annotated with an unknown operation family.
+     */
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        Map<String, Object> attributes = metadata.getAnnotationAttributes(ConditionalOnOperation.class.getName());
+        if (attributes == null) {
+            return true;
+        }
+        String family = (String) attributes.get("value");
+        if (!RoleService.getKnownFamilies().contains(family)) {
+            throw new IllegalStateException("Unknown operation family " + family + " in " + metadata);
+        }
+        return RoleService.isEnabled(context.getEnvironment().getProperty(RoleService.OPERATIONS_PROPERTY, ""), family);
+    }
+
+}
@@ -4,6 +4,7 @@ import org.alfresco.event.sdk.handling.filter.EventFilter;
 import org.alfresco.event.sdk.handling.filter.NodeAspectFilter;
 import org.alfresco.event.sdk.handling.filter.NodeTypeFilter;
 import org.alfresco.event.sdk.handling.handler.OnNodeCreatedEventHandler;
+import org.alfresco.genai.service.RoleService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,6 +19,7 @@ import org.springframework.stereotype.Component;
  * creation events. The filter criteria include the presence of the description aspect and the "cm:content" node type.
  */
 @Component
+@ConditionalOnOperation(RoleService.DESCRIPTION)
 public class PictureDescriptionCreatedHandler extends AbstractPictureTypeHandler implements OnNodeCreatedEventHandler {
 
     /**
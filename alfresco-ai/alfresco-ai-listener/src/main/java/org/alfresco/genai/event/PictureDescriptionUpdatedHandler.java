@@ -2,6 +2,7 @@ package org.alfresco.genai.event;
 
 import org.alfresco.event.sdk.handling.filter.*;
 import org.alfresco.event.sdk.handling.handler.OnNodeUpdatedEventHandler;
+import org.alfresco.genai.service.RoleService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -15,6 +16,7 @@ import org.springframework.stereotype.Component;
  * changes, or the addition of the summary aspect.
  */
 @Component
+@ConditionalOnOperation(RoleService.DESCRIPTION)
 public class PictureDescriptionUpdatedHandler extends AbstractPictureTypeHandler implements OnNodeUpdatedEventHandler {
 
     /**
@@ -27,6 +29,8 @@ public class PictureDescriptionUpdatedHandler extends AbstractPictureTypeHandler
      * Specifies the event filter to determine which node update events this handler should process. The filter criteria
      * include the presence of the description aspect, the "cm:content" node type, content changes, or the addition of the
      * description aspect.
+     * Events produced by the listener's own updates, like the addition of the aspect when storing the result, are
+     * ignored.
      *
      * @return An {@link EventFilter} representing the filter criteria for node update events.
      */
@@ -35,6 +39,7 @@ public class PictureDescriptionUpdatedHandler extends AbstractPictureTypeHandler
         return NodeAspectFilter.of(descriptionAspect)
                 .and(NodeTypeFilter.of("cm:content"))
                 .and(ContentChangedFilter.get())
-                .or(AspectAddedFilter.of(descriptionAspect));
+                .or(AspectAddedFilter.of(descriptionAspect))
+                .and(repoEvent -> !updateLedger.isOwnUpdate(repoEvent));
     }
 }
\ No newline at end of file
@@ -1,9 +1,13 @@
 package org.alfresco.genai.event;
 
 import org.alfresco.event.sdk.handling.filter.PropertyChangedFilter;
+import org.alfresco.genai.service.FreshnessTracker;
+import org.alfresco.genai.service.FreshnessTracker.Trace;
 import org.alfresco.genai.service.GenAiClient;
 import org.alfresco.genai.service.NodeUpdateService;
+import org.alfresco.genai.service.PartitionService;
 import org.alfresco.genai.service.RenditionService;
+import org.alfresco.genai.service.RoleService;
 import org.alfresco.event.sdk.handling.filter.EventFilter;
 import org.alfresco.event.sdk.handling.handler.OnNodeUpdatedEventHandler;
 import org.alfresco.event.sdk.model.v1.model.DataAttributes;
@@ -16,6 +20,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.File;
 import java.io.IOException;
 
 /**
@@ -29,6 +34,7 @@ import java.io.IOException;
  *
  */
 @Component
+@ConditionalOnOperation(RoleService.PROMPT)
 public class PropertyPromptUpdatedHandler implements OnNodeUpdatedEventHandler {
 
     /**
@@ -60,6 +66,18 @@ public class PropertyPromptUpdatedHandler implements OnNodeUpdatedEventHandler {
     @Autowired
     private NodeUpdateService nodeUpdateService;
 
+    /**
+     * Autowired instance of {@link PartitionService} for ignoring the events of nodes owned by other listener instances.
+     */
+    @Autowired
+    private PartitionService partitionService;
+
+    /**
+     * Autowired instance of {@link FreshnessTracker} for measuring the lag from the event to the update of the document.
+     */
+    @Autowired
+    private FreshnessTracker freshnessTracker;
+
     /**
      * Handles the node update event triggered by the system when a specified property is updated. Retrieves the
      * question associated with the property, obtains an answer using the GenAI service, and updates the document node
@@ -70,14 +88,32 @@ public class PropertyPromptUpdatedHandler implements OnNodeUpdatedEventHandler {
     @Override
     public void handleEvent(RepoEvent<DataAttributes<Resource>> repoEvent) {
 
-        String uuid = ((NodeResource) repoEvent.getData().getResource()).getId();
-        String question = ((NodeResource) repoEvent.getData().getResource()).getProperties().get(questionProperty).toString();
+        NodeResource nodeResource = (NodeResource) repoEvent.getData().getResource();
+        String uuid = nodeResource.getId();
+        if (!partitionService.isOwned(uuid)) {
+            return;
+        }
+        String question = nodeResource.getProperties().get(questionProperty).toString();
+        String mimeType = nodeResource.getContent() == null ? null : nodeResource.getContent().getMimeType();
 
         LOG.info("Answering question '{}' for document {}", question, uuid);
+        Trace trace = freshnessTracker.start(RoleService.PROMPT, uuid, repoEvent.getTime().toInstant().toEpochMilli());
         try {
-            nodeUpdateService.updateNodeAnswer(uuid, genAiClient.getAnswer(renditionService.getRenditionContent(uuid), question));
+            File file;
+            String fileMimeType;
+            if (renditionService.isRenditionBypassed(mimeType)) {
+                file = renditionService.getNodeContent(uuid);
+                fileMimeType = mimeType;
+            } else {
+                file = renditionService.getRenditionContent(uuid);
+                fileMimeType = RenditionService.PDF_MIME_TYPE;
+            }
+            trace.downloaded();
+            freshnessTracker.await(trace);
+            nodeUpdateService.updateNodeAnswer(uuid, genAiClient.getAnswer(file, fileMimeType, question));
         } catch (IOException e) {
             LOG.error("Error updating document {}", uuid, e);
+            freshnessTracker.discard(trace);
         }
         LOG.info("Document {} has been updated with answer", uuid);
 
@@ -0,0 +1,280 @@
+package org.alfresco.genai.event;
+
+import jakarta.annotation.PostConstruct;
+import org.alfresco.event.sdk.handling.filter.EventFilter;
+import org.alfresco.event.sdk.handling.filter.NodeTypeFilter;
+import org.alfresco.event.sdk.handling.handler.OnNodeCreatedEventHandler;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.alfresco.event.sdk.model.v1.model.Resource;
+import org.alfresco.genai.model.WorkItem;
+import org.alfresco.genai.service.AiOperationService;
+import org.alfresco.genai.service.AiOperationService.Operation;
+import org.alfresco.genai.service.DeadLetterStore;
+import org.alfresco.genai.service.EventDebouncer;
+import org.alfresco.genai.service.FreshnessTracker;
+import org.alfresco.genai.service.FreshnessTracker.Trace;
+import org.alfresco.genai.service.JobRegistry;
+import org.alfresco.genai.service.JobRegistry.Job;
+import org.alfresco.genai.service.NodeMetadataCache;
+import org.alfresco.genai.service.NodeUpdateService;
+import org.alfresco.genai.service.PartitionService;
+import org.alfresco.genai.service.ProcessingStatusService;
+import org.alfresco.genai.service.RenditionService;
+import org.alfresco.genai.service.SupersededException;
+import org.alfresco.genai.service.WorkJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The {@code RenditionCreatedHandler} class is a Spring component responsible for handling events triggered upon the
+ * creation of PDF renditions. It implements the {@link OnNodeCreatedEventHandler} interface to define custom logic for
+ * processing node creation events.
+ *
+ * <p>When a PDF rendition is created, this handler resolves the rendered document once, obtains the GenAI operations
+ * enabled by the aspects of the document (summary, classification and entity links) and applies all of them to the
+ * same downloaded rendition. Renditions of documents without any of those aspects are ignored without requesting the
+ * repository, and operations whose result was already obtained for the same content are skipped.
+ *
+ */
+@Component
+public class RenditionCreatedHandler implements OnNodeCreatedEventHandler {
+
+    /**
+     * Logger for logging information and error messages.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(RenditionCreatedHandler.class);
+
+    /**
+     * Name of the PDF rendition.
+     */
+    static final String PDF_RENDITION = "pdf";
+
+    /**
+     * Type of work recorded in the journal for operations on renditions.
+     */
+    static final String RENDITION_WORK = "RENDITION";
+
+    /**
+     * Autowired instance of {@link AiOperationService} for applying GenAI operations.
+     */
+    @Autowired
+    AiOperationService aiOperationService;
+
+    /**
+     * Autowired instance of {@link RenditionService} for handling document renditions.
+     */
+    @Autowired
+    RenditionService renditionService;
+
+    /**
+     * Autowired instance of {@link NodeUpdateService} for updating document nodes.
+     */
+    @Autowired
+    NodeUpdateService nodeUpdateService;
+
+    /**
+     * Autowired instance of {@link NodeMetadataCache} for checking the aspects of documents without reading them.
+     */
+    @Autowired
+    NodeMetadataCache nodeMetadataCache;
+
+    /**
+     * Autowired instance of {@link JobRegistry} for cancelling the operations when newer content arrives.
+     */
+    @Autowired
+    JobRegistry jobRegistry;
+
+    /**
+     * Autowired instance of {@link ProcessingStatusService} for skipping nodes taken by other processes.
+     */
+    @Autowired
+    ProcessingStatusService processingStatusService;
+
+    /**
+     * Autowired instance of {@link EventDebouncer} for collapsing repeated rendition events of the same document.
+     */
+    @Autowired
+    EventDebouncer eventDebouncer;
+
+    /**
+     * Autowired instance of {@link WorkJournal} for replaying the work not finished before a restart.
+     */
+    @Autowired
+    WorkJournal workJournal;
+
+    /**
+     * Autowired instance of {@link DeadLetterStore} for parking failed work to be redelivered later.
+     */
+    @Autowired
+    DeadLetterStore deadLetterStore;
+
+    /**
+     * Autowired instance of {@link PartitionService} for ignoring the events of nodes owned by other listener instances.
+     */
+    @Autowired
+    PartitionService partitionService;
+
+    /**
+     * Autowired instance of {@link FreshnessTracker} for measuring the lag from the event to the update of the document.
+     */
+    @Autowired
+    FreshnessTracker freshnessTracker;
+
+    /**
+     * Handles the node creation event triggered by the system. Applies every GenAI operation enabled on the document
+     * associated with the PDF rendition.
+     *
+     * @param repoEvent The event containing information about the created node.
+     */
+    @Override
+    public void handleEvent(final RepoEvent<DataAttributes<Resource>> repoEvent) {
+
+        NodeResource nodeResource = (NodeResource) repoEvent.getData().getResource();
+        List<String> primaryHierarchy = nodeResource.getPrimaryHierarchy();
+        String uuid = primaryHierarchy.get(0);
+        if (!partitionService.isOwned(uuid)) {
+            return;
+        }
+
+        Set<Operation> operations = aiOperationService.getOperations(nodeMetadataCache.get(uuid).getAspectNames());
+        if (operations.isEmpty()) {
+            return;
+        }
+
+        if (primaryHierarchy.size() > 1) {
+            nodeUpdateService.setPrimaryParentId(uuid, primaryHierarchy.get(1));
+        }
+
+        submit(workJournal.accept(new WorkItem()
+                .type(RENDITION_WORK)
+                .uuid(uuid)
+                .mimeType(RenditionService.PDF_MIME_TYPE)
+                .version(repoEvent.getTime().toInstant().toEpochMilli())), operations);
+
+    }
+
+    /**
+     * Registers the handler to replay the operations on renditions not finished before a restart. The operations are
+     * obtained again from the aspects of the document.
+     */
+    @PostConstruct
+    public void registerWork() {
+        workJournal.register(RENDITION_WORK, workItem -> submit(workItem,
+                aiOperationService.getOperations(nodeMetadataCache.get(workItem.getUuid()).getAspectNames())));
+    }
+
+    /**
+     * Submits the operations to be applied once repeated rendition events settle, recording the work as finished in
+     * the journal whatever the result is, once the buffered update of the document has been written.
+     *
+     * @param workItem   The work accepted for the document.
+     * @param operations The operations enabled on the document.
+     */
+    private void submit(WorkItem workItem, Set<Operation> operations) {
+        eventDebouncer.submit(workItem.getUuid(), workItem.getKey(), () -> {
+            try {
+                apply(workItem, operations);
+            } finally {
+                nodeUpdateService.afterFlush(workItem.getUuid(), () -> workJournal.complete(workItem));
+            }
+        });
+    }
+
+    /**
+     * Applies the GenAI operations to the PDF rendition of the document, skipping the operations whose result was
+     * already obtained for the same content before taking the document, and the operations being processed by another
+     * process. When an operation fails, the work is parked to be redelivered later and the operations already applied
+     * are skipped on redelivery.
+     *
+     * @param workItem   The work accepted for the document.
+     * @param operations The operations enabled on the document.
+     */
+    private void apply(WorkItem workItem, Set<Operation> operations) {
+
+        String uuid = workItem.getUuid();
+
+        String status = ProcessingStatusService.FAILED;
+        Set<Operation> leased = EnumSet.noneOf(Operation.class);
+        Job job = jobRegistry.start(uuid, workItem.getVersion());
+        Trace trace = freshnessTracker.resume(RENDITION_WORK, uuid, workItem.getVersion());
+        try {
+            String contentHash = renditionService.getContentHash(uuid, null);
+            operations.removeIf(operation -> aiOperationService.isUpToDate(operation, uuid, contentHash));
+            if (operations.isEmpty()) {
+                LOG.info("Content of document {} has not changed, GenAI operations are skipped", uuid);
+                status = ProcessingStatusService.DONE;
+                return;
+            }
+            for (Operation operation : operations) {
+                if (processingStatusService.start(uuid, operation.name())) {
+                    leased.add(operation);
+                }
+            }
+            if (leased.isEmpty()) {
+                return;
+            }
+            File file = renditionService.getRenditionContent(uuid);
+            trace.downloaded();
+            status = ProcessingStatusService.DONE;
+            for (Operation operation : EnumSet.copyOf(leased)) {
+                Trace operationTrace = trace.forOperation(operation.name());
+                freshnessTracker.await(operationTrace);
+                try {
+                    aiOperationService.apply(operation, uuid, file, RenditionService.PDF_MIME_TYPE, contentHash);
+                    processingStatusService.finish(uuid, operation.name(), ProcessingStatusService.DONE);
+                } catch (SupersededException e) {
+                    LOG.info("{} of document {} has been discarded as newer content has arrived", operation, uuid);
+                    freshnessTracker.discard(operationTrace);
+                    if (!ProcessingStatusService.FAILED.equals(status)) {
+                        status = ProcessingStatusService.PENDING;
+                    }
+                    return;
+                } catch (IOException | RuntimeException e) {
+                    LOG.error("Error applying {} to document {}", operation, uuid, e);
+                    freshnessTracker.discard(operationTrace);
+                    processingStatusService.finish(uuid, operation.name(), ProcessingStatusService.FAILED);
+                    if (!ProcessingStatusService.FAILED.equals(status)) {
+                        deadLetterStore.park(workItem, e);
+                    }
+                    status = ProcessingStatusService.FAILED;
+                }
+                leased.remove(operation);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Error getting content of document {}", uuid, e);
+            deadLetterStore.park(workItem, e);
+        } finally {
+            jobRegistry.finish(job);
+            for (Operation operation : leased) {
+                processingStatusService.finish(uuid, operation.name(), status);
+            }
+            if (!ProcessingStatusService.FAILED.equals(status)) {
+                deadLetterStore.remove(workItem);
+            }
+        }
+
+    }
+
+    /**
+     * Specifies the event filter to determine which node creation events this handler should process. In this case,
+     * the filter is based on the node type "cm:thumbnail" and the name of the PDF rendition.
+     *
+     * @return An {@link EventFilter} representing the filter criteria for node creation events.
+     */
+    @Override
+    public EventFilter getEventFilter() {
+        return NodeTypeFilter.of("cm:thumbnail")
+                .and(repoEvent -> PDF_RENDITION.equals(((NodeResource) repoEvent.getData().getResource()).getName()));
+    }
+
+}
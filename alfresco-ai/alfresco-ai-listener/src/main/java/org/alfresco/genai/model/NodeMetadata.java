@@ -0,0 +1,167 @@
+package org.alfresco.genai.model;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code NodeMetadata} class represents the information of a node the listener needs to decide if the node
+ * requires a GenAI operation, kept in memory to avoid requesting the repository for every event.
+ *
+ * <p>This class follows the builder pattern, allowing for a fluent and readable way to construct instances.
+ *
+ */
+public class NodeMetadata {
+
+    /**
+     * The aspect names applied to the node.
+     */
+    private List<String> aspectNames;
+
+    /**
+     * The stamp of the last known version of the content, built from the size and the time of the event that
+     * created or changed the content.
+     */
+    private String contentStamp;
+
+    /**
+     * The hash of the content version identified by the content stamp, or {@code null} if it has not been computed.
+     */
+    private String contentHash;
+
+    /**
+     * The properties of the node.
+     */
+    private Map<String, Serializable> properties;
+
+    /**
+     * The time in milliseconds the node was read from the repository, or 0 if it was obtained from an event.
+     */
+    private long resolvedAt;
+
+    /**
+     * The time in milliseconds of the last modification of the node in this state, or 0 if it is unknown.
+     */
+    private long modifiedAt;
+
+    /**
+     * Gets the aspect names applied to the node.
+     *
+     * @return The aspect names.
+     */
+    public List<String> getAspectNames() {
+        return aspectNames;
+    }
+
+    /**
+     * Sets the aspect names applied to the node.
+     *
+     * @param aspectNames The aspect names.
+     * @return This {@code NodeMetadata} instance for method chaining.
+     */
+    public NodeMetadata aspectNames(List<String> aspectNames) {
+        this.aspectNames = aspectNames;
+        return this;
+    }
+
+    /**
+     * Gets the stamp of the last known version of the content.
+     *
+     * @return The content stamp, or {@code null} if the content has not been seen in an event.
+     */
+    public String getContentStamp() {
+        return contentStamp;
+    }
+
+    /**
+     * Sets the stamp of the last known version of the content.
+     *
+     * @param contentStamp The content stamp.
+     * @return This {@code NodeMetadata} instance for method chaining.
+     */
+    public NodeMetadata contentStamp(String contentStamp) {
+        this.contentStamp = contentStamp;
+        return this;
+    }
+
+    /**
+     * Gets the hash of the content version identified by the content stamp.
+     *
+     * @return The content hash, or {@code null} if it has not been computed.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Sets the hash of the content version identified by the content stamp.
+     *
+     * @param contentHash The content hash.
+     * @return This {@code NodeMetadata} instance for method chaining.
+     */
+    public NodeMetadata contentHash(String contentHash) {
+        this.contentHash = contentHash;
+        return this;
+    }
+
+    /**
+     * Gets the properties of the node.
+     *
+     * @return The properties.
+     */
+    public Map<String, Serializable> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Sets the properties of the node.
+     *
+     * @param properties The properties.
+     * @return This {@code NodeMetadata} instance for method chaining.
+     */
+    public NodeMetadata properties(Map<String, Serializable> properties) {
+        this.properties = properties;
+        return this;
+    }
+
+    /**
+     * Gets the time in milliseconds the node was read from the repository.
+     *
+     * @return The time the node was read, or 0 if it was obtained from an event.
+     */
+    public long getResolvedAt() {
+        return resolvedAt;
+    }
+
+    /**
+     * Sets the time in milliseconds the node was read from the repository.
+     *
+     * @param resolvedAt The time the node was read.
+     * @return This {@code NodeMetadata} instance for method chaining.
+     */
+    public NodeMetadata resolvedAt(long resolvedAt) {
+        this.resolvedAt = resolvedAt;
+        return this;
+    }
+
+    /**
+     * Gets the time in milliseconds of the last modification of the node in this state.
+     *
+     * @return The modification time, or 0 if it is unknown.
+     */
+    public long getModifiedAt() {
+        return modifiedAt;
+    }
+
+    /**
+     * Sets the time in milliseconds of the last modification of the node in this state.
+     *
+     * @param modifiedAt The modification time.
+     * @return This {@code NodeMetadata} instance for method chaining.
+     */
+    public NodeMetadata modifiedAt(long modifiedAt) {
+        this.modifiedAt = modifiedAt;
+        return this;
+    }
+
+}
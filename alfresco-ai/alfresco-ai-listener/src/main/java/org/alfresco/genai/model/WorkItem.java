@@ -0,0 +1,121 @@
+package org.alfresco.genai.model;
+
+/**
+ * The {@code WorkItem} class represents a unit of GenAI work accepted by the listener for a node, as recorded in the
+ * local work journal to be replayed when the listener restarts before finishing it.
+ *
+ * <p>This class follows the builder pattern, allowing for a fluent and readable way to construct instances.
+ *
+ */
+public class WorkItem {
+
+    /**
+     * The type of work, like the GenAI operation applied to the node.
+     */
+    private String type;
+
+    /**
+     * The unique identifier of the node.
+     */
+    private String uuid;
+
+    /**
+     * The MIME type of the node content, if known.
+     */
+    private String mimeType;
+
+    /**
+     * The time in milliseconds of the event that produced the work.
+     */
+    private long version;
+
+    /**
+     * Gets the type of work.
+     *
+     * @return The type of work.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Sets the type of work.
+     *
+     * @param type The type of work.
+     * @return This {@code WorkItem} instance for method chaining.
+     */
+    public WorkItem type(String type) {
+        this.type = type;
+        return this;
+    }
+
+    /**
+     * Gets the unique identifier of the node.
+     *
+     * @return The unique identifier of the node.
+     */
+    public String getUuid() {
+        return uuid;
+    }
+
+    /**
+     * Sets the unique identifier of the node.
+     *
+     * @param uuid The unique identifier of the node.
+     * @return This {@code WorkItem} instance for method chaining.
+     */
+    public WorkItem uuid(String uuid) {
+        this.uuid = uuid;
+        return this;
+    }
+
+    /**
+     * Gets the MIME type of the node content.
+     *
+     * @return The MIME type, or {@code null} if it is not known.
+     */
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * Sets the MIME type of the node content.
+     *
+     * @param mimeType The MIME type.
+     * @return This {@code WorkItem} instance for method chaining.
+     */
+    public WorkItem mimeType(String mimeType) {
+        this.mimeType = mimeType;
+        return this;
+    }
+
+    /**
+     * Gets the time in milliseconds of the event that produced the work.
+     *
+     * @return The time of the event.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the time in milliseconds of the event that produced the work.
+     *
+     * @param version The time of the event.
+     * @return This {@code WorkItem} instance for method chaining.
+     */
+    public WorkItem version(long version) {
+        this.version = version;
+        return this;
+    }
+
+    /**
+     * Gets the key identifying the work on the node, newer work with the same key replaces older one.
+     *
+     * @return The key made of the type of work and the node.
+     */
+    public String getKey() {
+        return type + ":" + uuid;
+    }
+
+}
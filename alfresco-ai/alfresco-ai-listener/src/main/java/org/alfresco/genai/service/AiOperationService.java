@@ -0,0 +1,223 @@
+package org.alfresco.genai.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@code AiOperationService} class is a Spring service that applies the GenAI operations on documents: it requests
+ * the operation to the GenAI service and updates the document node with the result. Each operation is enabled on a
+ * document by an aspect, so the operations required by a document are obtained from its aspect names.
+ */
+@Service
+public class AiOperationService {
+
+    static final Logger LOG = LoggerFactory.getLogger(AiOperationService.class);
+
+    /**
+     * Enumeration of GenAI operations applied to document content.
+     */
+    public enum Operation {
+        SUMMARY, CLASSIFY, ENTITYLINKWIKIDATA, ENTITYLINKDBPEDIA
+    }
+
+    /**
+     * Aspect name associated with document summaries.
+     */
+    @Value("${content.service.summary.aspect}")
+    String summaryAspect;
+
+    /**
+     * Aspect name associated with document classification.
+     */
+    @Value("${content.service.classify.aspect}")
+    String classifyAspect;
+
+    /**
+     * Aspect name associated with Wikidata entity links.
+     */
+    @Value("${content.service.entitylinks-wikidata.aspect}")
+    String entityLinksWikidataAspect;
+
+    /**
+     * Aspect name associated with DBpedia entity links.
+     */
+    @Value("${content.service.entitylinks-dbpedia.aspect}")
+    String entityLinksDBpediaAspect;
+
+    /**
+     * The property name storing the document summary.
+     */
+    @Value("${content.service.summary.summary.property}")
+    String summaryProperty;
+
+    /**
+     * The property name storing the document term.
+     */
+    @Value("${content.service.classify.term.property}")
+    String termProperty;
+
+    /**
+     * The property name storing the Wikidata entity labels.
+     */
+    @Value("${content.service.entitylinks-wikidata.labelsWikidata.property}")
+    String labelsWikidataProperty;
+
+    /**
+     * The property name storing the DBpedia entity labels.
+     */
+    @Value("${content.service.entitylinks-dbpedia.labelsDBpedia.property}")
+    String labelsDBpediaProperty;
+
+    /**
+     * The property name storing the hash of the content processed by GenAI operations, suffixed with the name of
+     * every operation.
+     */
+    @Value("${content.service.fingerprint.hash.property}")
+    String contentHashProperty;
+
+    /**
+     * Autowired instance of {@link GenAiClient} for interacting with the GenAI service.
+     */
+    @Autowired
+    GenAiClient genAiClient;
+
+    /**
+     * Autowired instance of {@link NodeUpdateService} for updating document nodes.
+     */
+    @Autowired
+    NodeUpdateService nodeUpdateService;
+
+    /**
+     * Autowired instance of {@link NodeMetadataCache} for reading the results stored in document nodes.
+     */
+    @Autowired
+    NodeMetadataCache nodeMetadataCache;
+
+    /**
+     * Autowired instance of {@link RoleService} for applying only the operations enabled on this instance.
+     */
+    @Autowired
+    RoleService roleService;
+
+    /**
+     * Gets the aspect name enabling the operation on a document.
+     *
+     * @param operation The GenAI operation.
+     * @return The aspect name.
+     */
+    public String getAspect(Operation operation) {
+        return switch (operation) {
+            case SUMMARY -> summaryAspect;
+            case CLASSIFY -> classifyAspect;
+            case ENTITYLINKWIKIDATA -> entityLinksWikidataAspect;
+            case ENTITYLINKDBPEDIA -> entityLinksDBpediaAspect;
+        };
+    }
+
+    /**
+     * Gets the property name storing the result of the operation on a document.
+     *
+     * @param operation The GenAI operation.
+     * @return The property name.
+     */
+    public String getResultProperty(Operation operation) {
+        return switch (operation) {
+            case SUMMARY -> summaryProperty;
+            case CLASSIFY -> termProperty;
+            case ENTITYLINKWIKIDATA -> labelsWikidataProperty;
+            case ENTITYLINKDBPEDIA -> labelsDBpediaProperty;
+        };
+    }
+
+    /**
+     * Gets the property name storing the hash of the content processed by the operation on a document, so every
+     * operation is skipped only when its own result was obtained for the same content.
+     *
+     * @param operation The GenAI operation.
+     * @return The property name.
+     */
+    public String getHashProperty(Operation operation) {
+        return NodeUpdateService.getOperationProperty(contentHashProperty, operation.name());
+    }
+
+    /**
+     * Checks if the document already includes the result of the operation for the same content, for instance when
+     * the same file is uploaded again, so the operation doesn't need to be requested to the GenAI service.
+     *
+     * @param operation   The GenAI operation.
+     * @param uuid        The unique identifier of the document node.
+     * @param contentHash The hash of the current document content.
+     * @return {@code true} if the operation was applied to the same content, {@code false} otherwise.
+     */
+    public boolean isUpToDate(Operation operation, String uuid, String contentHash) {
+        Map<String, Serializable> properties = nodeMetadataCache.get(uuid).getProperties();
+        return contentHash.equals(properties.get(getHashProperty(operation))) &&
+                properties.get(getResultProperty(operation)) != null;
+    }
+
+    /**
+     * Gets the operations enabled on a document by its aspect names. Operations not enabled in the role of this
+     * instance are left to other instances.
+     *
+     * @param aspectNames The aspect names of the document.
+     * @return The operations to be applied to the document by this instance, empty if the document doesn't require
+     * any.
+     */
+    public Set<Operation> getOperations(Collection<String> aspectNames) {
+        Set<Operation> operations = EnumSet.noneOf(Operation.class);
+        for (Operation operation : Operation.values()) {
+            if (aspectNames.contains(getAspect(operation)) && roleService.isEnabled(operation)) {
+                operations.add(operation);
+            }
+        }
+        return operations;
+    }
+
+    /**
+     * Applies the operation to the document content and updates the document node with the result and the hash of
+     * the content in the same update.
+     *
+     * @param operation   The GenAI operation.
+     * @param uuid        The unique identifier of the document node.
+     * @param file        The PDF or text file with the document content.
+     * @param mimeType    The MIME type of the file.
+     * @param contentHash The hash of the original document content.
+     * @throws IOException If an I/O error occurs while invoking the GenAI service.
+     */
+    public void apply(Operation operation, String uuid, File file, String mimeType, String contentHash) throws IOException {
+        switch (operation) {
+            case SUMMARY -> {
+                LOG.info("Summarizing document {}", uuid);
+                nodeUpdateService.updateNodeSummary(uuid, genAiClient.getSummary(file, mimeType), contentHash);
+                LOG.info("Document {} has been updated with summary and tag", uuid);
+            }
+            case CLASSIFY -> {
+                LOG.info("Classifying document {}", uuid);
+                nodeUpdateService.updateNodeTerm(uuid, genAiClient.getTerm(file, mimeType, nodeUpdateService.getTermList(uuid)), contentHash);
+                LOG.info("Document {} has been updated with term and model", uuid);
+            }
+            case ENTITYLINKWIKIDATA -> {
+                LOG.info("Wikidata Entity linking document {}", uuid);
+                nodeUpdateService.updateNodeEntityLinksWikidata(uuid, genAiClient.getEntityLinksWikidata(file, mimeType), contentHash);
+                LOG.info("Document {} has been updated with Wikidata entity links", uuid);
+            }
+            case ENTITYLINKDBPEDIA -> {
+                LOG.info("DBpedia Entity linking document {}", uuid);
+                nodeUpdateService.updateNodeEntityLinksDBpedia(uuid, genAiClient.getEntityLinksDBpedia(file, mimeType), contentHash);
+                LOG.info("Document {} has been updated with DBpedia entity links", uuid);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,362 @@
+package org.alfresco.genai.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.alfresco.genai.model.WorkItem;
+import org.alfresco.genai.service.AiOperationService.Operation;
+import org.alfresco.search.handler.SearchApi;
+import org.alfresco.search.model.RequestPagination;
+import org.alfresco.search.model.RequestQuery;
+import org.alfresco.search.model.RequestSortDefinition;
+import org.alfresco.search.model.RequestSortDefinitionInner;
+import org.alfresco.search.model.ResultNode;
+import org.alfresco.search.model.ResultSetPaging;
+import org.alfresco.search.model.ResultSetRowEntry;
+import org.alfresco.search.model.SearchRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * The {@code CatchUpService} class is a Spring service applying the GenAI operations missed while the listener was
+ * down. Events are not kept by the broker for a stopped listener, so nodes getting an AI aspect in the meantime would
+ * never be processed.
+ *
+ * <p>The listener keeps a high-water mark with the time of the latest event whose work can't be lost anymore, as told
+ * by the {@link WorkJournal}, saved to a local file. Events still waiting in the listener don't advance the mark. On
+ * startup, nodes with an AI aspect and without its result, modified after the mark, are searched and fed to the
+ * handlers of their operation at a limited rate and only while the {@link WorkerPool} has idle threads, so the
+ * catch-up doesn't delay live events. Prompts are not caught up, as they are only triggered by changes of the
+ * question.
+ *
+ * <p>The nodes of another listener instance sharing the nodes with this one are caught up the same way when that
+ * instance leaves, as events received since its last heartbeat may have been ignored by every instance.
+ */
+@Service
+public class CatchUpService {
+
+    static final Logger LOG = LoggerFactory.getLogger(CatchUpService.class);
+
+    /**
+     * Time before the mark also searched, covering events received around the time the listener stopped.
+     */
+    static final Duration MARGIN = Duration.ofMinutes(1);
+
+    /**
+     * Time in milliseconds between saves of the mark.
+     */
+    static final long SAVE_INTERVAL = 10000;
+
+    /**
+     * Number of nodes read with every search request.
+     */
+    static final int PAGE_SIZE = 100;
+
+    /**
+     * File to keep the high-water mark obtained from configuration, an empty value disables the catch-up.
+     */
+    @Value("${content.service.catchup.file}")
+    String markFile;
+
+    /**
+     * Maximum number of nodes submitted per second during the catch-up obtained from configuration.
+     */
+    @Value("${content.service.catchup.rate}")
+    double catchUpRate;
+
+    /**
+     * Maximum number of nodes caught up on startup obtained from configuration.
+     */
+    @Value("${content.service.catchup.max}")
+    int catchUpMax;
+
+    /**
+     * Aspect name associated with picture descriptions.
+     */
+    @Value("${content.service.description.aspect}")
+    String descriptionAspect;
+
+    /**
+     * The property name storing the picture description.
+     */
+    @Value("${content.service.description.description.property}")
+    String descriptionProperty;
+
+    /**
+     * Autowired instance of {@link SearchApi} for searching the nodes missed.
+     */
+    @Autowired
+    SearchApi searchApi;
+
+    /**
+     * Autowired instance of {@link AiOperationService} for the aspects and results of the content operations.
+     */
+    @Autowired
+    AiOperationService aiOperationService;
+
+    /**
+     * Autowired instance of {@link RoleService} for catching up only the operations applied by this instance.
+     */
+    @Autowired
+    RoleService roleService;
+
+    /**
+     * Autowired instance of {@link PartitionService} for catching up only the nodes owned by this instance, and the
+     * nodes taken from the instances leaving.
+     */
+    @Autowired
+    PartitionService partitionService;
+
+    /**
+     * Autowired instance of {@link WorkerPool} for catching up only while it has idle threads.
+     */
+    @Autowired
+    WorkerPool workerPool;
+
+    /**
+     * Autowired instance of {@link WorkJournal} for submitting the nodes missed to the handlers of their operation and
+     * for the time of the latest work that can't be lost.
+     */
+    @Autowired
+    WorkJournal workJournal;
+
+    /**
+     * Mark read on startup, 0 if the listener has never run before.
+     */
+    private long startMark;
+
+    /**
+     * Latest mark saved to the file.
+     */
+    private long savedMark;
+
+    /**
+     * Scheduler saving the mark.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Executor running the catch-up, which waits for idle worker threads without delaying the saves of the mark.
+     */
+    private ExecutorService catchUpExecutor;
+
+    /**
+     * Reads the mark saved before the last stop, creating the folder of the file if required, and starts saving the
+     * mark periodically. The nodes taken from a listener instance leaving are caught up from its last heartbeat.
+     *
+     * @throws IOException If the folder can't be created or the file can't be read.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        Files.createDirectories(Path.of(markFile).toAbsolutePath().getParent());
+        if (Files.exists(Path.of(markFile))) {
+            String value = Files.readString(Path.of(markFile), StandardCharsets.UTF_8).trim();
+            try {
+                startMark = Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                LOG.warn("Invalid high-water mark {} in {}", value, markFile);
+            }
+        }
+        savedMark = startMark;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catch-up-mark");
+            thread.setDaemon(true);
+            return thread;
+        });
+        catchUpExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catch-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::save, SAVE_INTERVAL, SAVE_INTERVAL, TimeUnit.MILLISECONDS);
+        partitionService.onMemberLeft((lastHeartbeat, taken) -> catchUpExecutor.execute(() -> run(lastHeartbeat, taken)));
+    }
+
+    /**
+     * Saves the mark and stops the catch-up.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            catchUpExecutor.shutdownNow();
+            scheduler.shutdownNow();
+            save();
+        }
+    }
+
+    /**
+     * Starts the catch-up in the background once every handler is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        if (!isEnabled()) {
+            return;
+        }
+        if (startMark == 0) {
+            LOG.info("No high-water mark found in {}, nodes are not caught up", markFile);
+            return;
+        }
+        catchUpExecutor.execute(() -> run(startMark, partitionService::isOwned));
+    }
+
+    /**
+     * Searches the nodes missed since a time and submits them at the configured rate.
+     *
+     * @param mark   The time in milliseconds since which events may have been missed.
+     * @param filter The filter of the nodes to be caught up by this instance.
+     */
+    private void run(long mark, Predicate<String> filter) {
+        Instant since = Instant.ofEpochMilli(mark).minus(MARGIN);
+        Map<String, String> queries = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            if (roleService.isEnabled(operation)) {
+                queries.put(operation.name(),
+                        getQuery(aiOperationService.getAspect(operation), aiOperationService.getResultProperty(operation), since));
+            }
+        }
+        if (roleService.isEnabled(RoleService.DESCRIPTION)) {
+            queries.put(RoleService.DESCRIPTION, getQuery(descriptionAspect, descriptionProperty, since));
+        }
+
+        List<WorkItem> workItems = new ArrayList<>();
+        try {
+            for (Map.Entry<String, String> query : queries.entrySet()) {
+                search(query.getKey(), query.getValue(), filter, workItems);
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Nodes modified since {} can't be searched, they are not caught up", since, e);
+            return;
+        }
+        LOG.info("Catching up {} GenAI operations on nodes modified since {}", workItems.size(), since);
+
+        long delay = (long) (1000 / catchUpRate);
+        int submitted = 0;
+        try {
+            for (WorkItem workItem : workItems) {
+                while (!workerPool.hasIdleThreads()) {
+                    Thread.sleep(delay);
+                }
+                workJournal.resubmit(workItem);
+                submitted++;
+                Thread.sleep(delay);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.info("Catch-up has been stopped after {} operations", submitted);
+            return;
+        }
+        LOG.info("Catch-up has finished after {} operations", submitted);
+    }
+
+    /**
+     * Builds the query of the nodes requiring an operation and modified since a time.
+     *
+     * @param aspect         The aspect enabling the operation.
+     * @param resultProperty The property storing the result of the operation.
+     * @param since          The earliest modification time.
+     * @return The AFTS query.
+     */
+    private String getQuery(String aspect, String resultProperty, Instant since) {
+        return "TYPE:\"cm:content\" AND ASPECT:\"" + aspect + "\" AND NOT EXISTS:\"" + resultProperty + "\"" +
+                " AND cm:modified:[\"" + since + "\" TO MAX]";
+    }
+
+    /**
+     * Searches the nodes matching a query, adding the work for each of them until the maximum is reached.
+     *
+     * @param type      The type of work, registered by the handlers of the operation.
+     * @param query     The AFTS query.
+     * @param filter    The filter of the nodes to be caught up by this instance.
+     * @param workItems The work found so far.
+     */
+    private void search(String type, String query, Predicate<String> filter, List<WorkItem> workItems) {
+        RequestSortDefinition sortDefinition = new RequestSortDefinition();
+        sortDefinition.add(new RequestSortDefinitionInner()
+                .type(RequestSortDefinitionInner.TypeEnum.FIELD)
+                .field("cm:modified")
+                .ascending(true));
+        int skipCount = 0;
+        boolean hasMoreItems = true;
+        while (hasMoreItems && workItems.size() < catchUpMax) {
+            ResultSetPaging results = searchApi.search(
+                    new SearchRequest()
+                            .query(new RequestQuery()
+                                    .language(RequestQuery.LanguageEnum.AFTS)
+                                    .query(query))
+                            .sort(sortDefinition)
+                            .paging(new RequestPagination().maxItems(PAGE_SIZE).skipCount(skipCount)))
+                    .getBody();
+            for (ResultSetRowEntry entry : results.getList().getEntries()) {
+                if (workItems.size() >= catchUpMax) {
+                    LOG.warn("Catch-up is limited to {} operations, the remaining nodes require the applier", catchUpMax);
+                    break;
+                }
+                ResultNode node = entry.getEntry();
+                if (!filter.test(node.getId())) {
+                    continue;
+                }
+                workItems.add(new WorkItem()
+                        .type(type)
+                        .uuid(node.getId())
+                        .mimeType(node.getContent() == null ? null : node.getContent().getMimeType())
+                        .version(node.getModifiedAt() == null ? 0 : node.getModifiedAt().toInstant().toEpochMilli()));
+            }
+            skipCount += PAGE_SIZE;
+            hasMoreItems = Boolean.TRUE.equals(results.getList().getPagination().isHasMoreItems());
+        }
+    }
+
+    /**
+     * Saves the mark to the file when it has changed. The mark may move back when only older work caught up has been
+     * accepted, which only widens the next catch-up.
+     */
+    private synchronized void save() {
+        long current = workJournal.getSafeVersion();
+        if (current <= 0 || current == savedMark) {
+            return;
+        }
+        try {
+            Path temporaryFile = Path.of(markFile + ".tmp");
+            Files.writeString(temporaryFile, String.valueOf(current), StandardCharsets.UTF_8);
+            Files.move(temporaryFile, Path.of(markFile), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            savedMark = current;
+        } catch (IOException e) {
+            LOG.warn("High-water mark can't be written to {}", markFile, e);
+        }
+    }
+
+    /**
+     * Checks if the catch-up is enabled.
+     *
+     * @return {@code true} if a file for the mark is configured, {@code false} otherwise.
+     */
+    private boolean isEnabled() {
+        return markFile != null && !markFile.isBlank();
+    }
+
+}
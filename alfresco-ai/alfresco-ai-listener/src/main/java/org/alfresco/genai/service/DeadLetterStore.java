@@ -0,0 +1,319 @@
+package org.alfresco.genai.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.alfresco.genai.model.WorkItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code DeadLetterStore} class is a Spring service parking the GenAI work that failed, for instance when the
+ * GenAI service or the repository was not available or answered with an error, with the causes of the failure.
+ * Parked work is kept in a local file, so it survives restarts, and it is removed when the work on the node succeeds
+ * later.
+ *
+ * <p>A background process redelivers parked work with an exponential backoff, a few work items at a time and only
+ * while the {@link WorkerPool} has idle threads, so redeliveries don't compete with live events. Work failing the
+ * configured number of attempts stays parked without further redeliveries.
+ */
+@Service
+public class DeadLetterStore {
+
+    static final Logger LOG = LoggerFactory.getLogger(DeadLetterStore.class);
+
+    /**
+     * Separator of the fields of a record.
+     */
+    static final String SEPARATOR = "\t";
+
+    /**
+     * File to keep the parked work obtained from configuration, an empty value keeps it only in memory.
+     */
+    @Value("${content.service.deadletter.file}")
+    String deadLetterFile;
+
+    /**
+     * Time in milliseconds between redelivery rounds obtained from configuration, also used as the delay of the first
+     * redelivery of a work item.
+     */
+    @Value("${content.service.deadletter.interval}")
+    long redeliveryInterval;
+
+    /**
+     * Maximum number of work items redelivered in every round obtained from configuration.
+     */
+    @Value("${content.service.deadletter.batch}")
+    int redeliveryBatch;
+
+    /**
+     * Maximum number of failed attempts of a work item before it is no longer redelivered obtained from configuration.
+     */
+    @Value("${content.service.deadletter.attempts}")
+    int maxAttempts;
+
+    /**
+     * Autowired instance of {@link WorkJournal} for submitting parked work again to the runner of its type.
+     */
+    @Autowired
+    WorkJournal workJournal;
+
+    /**
+     * Autowired instance of {@link WorkerPool} for redelivering work only while it has idle threads.
+     */
+    @Autowired
+    WorkerPool workerPool;
+
+    /**
+     * Parked work by key, in the order it was parked.
+     */
+    private final Map<String, DeadLetter> deadLetters = new LinkedHashMap<>();
+
+    /**
+     * Scheduler running the redelivery rounds.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Reads the work parked before the last stop, creating the folder of the file if required, and starts the
+     * redelivery process.
+     *
+     * @throws IOException If the folder can't be created or the file can't be read.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        if (isPersistent()) {
+            Files.createDirectories(Path.of(deadLetterFile).toAbsolutePath().getParent());
+            if (Files.exists(Path.of(deadLetterFile))) {
+                for (String line : Files.readAllLines(Path.of(deadLetterFile), StandardCharsets.UTF_8)) {
+                    read(line);
+                }
+                LOG.info("Loaded {} parked work items from {}", deadLetters.size(), deadLetterFile);
+            }
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dead-letter-redelivery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::redeliver, redeliveryInterval, redeliveryInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the redelivery process.
+     */
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Parks failed work, scheduling its next redelivery. Work parked again counts one more failed attempt.
+     *
+     * @param workItem The failed work.
+     * @param cause    The cause of the failure.
+     */
+    public void park(WorkItem workItem, Throwable cause) {
+        synchronized (deadLetters) {
+            DeadLetter previous = deadLetters.get(workItem.getKey());
+            DeadLetter deadLetter = new DeadLetter();
+            deadLetter.workItem = workItem;
+            deadLetter.attempts = previous == null ? 1 : previous.attempts + 1;
+            deadLetter.cause = describe(cause).replaceAll("\\s+", " ");
+            deadLetter.redeliverAt = System.currentTimeMillis() + getBackoff(deadLetter.attempts);
+            deadLetters.remove(workItem.getKey());
+            deadLetters.put(workItem.getKey(), deadLetter);
+            if (deadLetter.attempts >= maxAttempts) {
+                LOG.error("Work {} has failed {} times and won't be redelivered: {}",
+                        workItem.getKey(), deadLetter.attempts, deadLetter.cause);
+            } else {
+                LOG.warn("Work {} has been parked after {} failed attempts: {}",
+                        workItem.getKey(), deadLetter.attempts, deadLetter.cause);
+            }
+            save();
+        }
+    }
+
+    /**
+     * Describes a failure with the chain of its causes, as REST client errors often wrap the I/O error that caused
+     * them.
+     *
+     * @param cause The cause of the failure.
+     * @return The failure followed by its causes, separated by {@code <-}.
+     */
+    private static String describe(Throwable cause) {
+        StringBuilder description = new StringBuilder(String.valueOf(cause));
+        for (Throwable wrapped = cause == null ? null : cause.getCause();
+             wrapped != null && wrapped != wrapped.getCause(); wrapped = wrapped.getCause()) {
+            description.append(" <- ").append(wrapped);
+        }
+        return description.toString();
+    }
+
+    /**
+     * Removes the parked work of a node once newer or the same work on the node has finished without failing.
+     *
+     * @param workItem The finished work.
+     */
+    public void remove(WorkItem workItem) {
+        synchronized (deadLetters) {
+            DeadLetter deadLetter = deadLetters.get(workItem.getKey());
+            if (deadLetter != null && deadLetter.workItem.getVersion() <= workItem.getVersion()) {
+                deadLetters.remove(workItem.getKey());
+                LOG.info("Parked work {} has been cleared", workItem.getKey());
+                save();
+            }
+        }
+    }
+
+    /**
+     * Redelivers the parked work whose backoff has expired, while the worker pool has idle threads.
+     */
+    private void redeliver() {
+        List<WorkItem> workItems = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (deadLetters) {
+            for (DeadLetter deadLetter : deadLetters.values()) {
+                if (workItems.size() >= redeliveryBatch) {
+                    break;
+                }
+                if (deadLetter.attempts < maxAttempts && deadLetter.redeliverAt <= now) {
+                    deadLetter.redeliverAt = now + getBackoff(deadLetter.attempts + 1);
+                    workItems.add(deadLetter.workItem);
+                }
+            }
+        }
+        for (WorkItem workItem : workItems) {
+            if (!workerPool.hasIdleThreads()) {
+                synchronized (deadLetters) {
+                    DeadLetter deadLetter = deadLetters.get(workItem.getKey());
+                    if (deadLetter != null) {
+                        deadLetter.redeliverAt = now;
+                    }
+                }
+                continue;
+            }
+            LOG.info("Redelivering parked work {}", workItem.getKey());
+            try {
+                workJournal.resubmit(workItem);
+            } catch (RuntimeException e) {
+                LOG.warn("Parked work {} can't be redelivered", workItem.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * Gets the delay before redelivering work, doubled after every failed attempt.
+     *
+     * @param attempts The number of failed attempts.
+     * @return The delay in milliseconds.
+     */
+    private long getBackoff(int attempts) {
+        return redeliveryInterval * (1L << Math.min(attempts - 1, 20));
+    }
+
+    /**
+     * Writes the parked work to the file, replacing the previous content.
+     */
+    private void save() {
+        if (!isPersistent()) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        for (DeadLetter deadLetter : deadLetters.values()) {
+            lines.add(String.join(SEPARATOR,
+                    deadLetter.workItem.getType(),
+                    deadLetter.workItem.getUuid(),
+                    String.valueOf(deadLetter.workItem.getVersion()),
+                    deadLetter.workItem.getMimeType() == null ? "" : deadLetter.workItem.getMimeType(),
+                    String.valueOf(deadLetter.attempts),
+                    deadLetter.cause));
+        }
+        try {
+            Path file = Path.of(deadLetterFile);
+            Path temporaryFile = Path.of(deadLetterFile + ".tmp");
+            Files.write(temporaryFile, lines, StandardCharsets.UTF_8);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Parked work can't be written to {}", deadLetterFile, e);
+        }
+    }
+
+    /**
+     * Reads a record of the file. Work read from the file is redelivered in the first round.
+     *
+     * @param record The record without the line separator.
+     */
+    private void read(String record) {
+        String[] fields = record.split(SEPARATOR, 6);
+        if (fields.length != 6) {
+            LOG.warn("Invalid record in {}: {}", deadLetterFile, record);
+            return;
+        }
+        try {
+            DeadLetter deadLetter = new DeadLetter();
+            deadLetter.workItem = new WorkItem()
+                    .type(fields[0])
+                    .uuid(fields[1])
+                    .version(Long.parseLong(fields[2]))
+                    .mimeType(fields[3].isEmpty() ? null : fields[3]);
+            deadLetter.attempts = Integer.parseInt(fields[4]);
+            deadLetter.cause = fields[5];
+            deadLetters.put(deadLetter.workItem.getKey(), deadLetter);
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid record in {}: {}", deadLetterFile, record);
+        }
+    }
+
+    /**
+     * Checks if parked work is kept in a file.
+     *
+     * @return {@code true} if a file is configured, {@code false} otherwise.
+     */
+    private boolean isPersistent() {
+        return deadLetterFile != null && !deadLetterFile.isBlank();
+    }
+
+    /**
+     * Failed work parked for redelivery.
+     */
+    private static class DeadLetter {
+
+        /**
+         * The failed work.
+         */
+        WorkItem workItem;
+
+        /**
+         * Number of failed attempts.
+         */
+        int attempts;
+
+        /**
+         * Cause of the latest failure.
+         */
+        String cause;
+
+        /**
+         * Time in milliseconds of the next redelivery, in case the current one doesn't finish the work.
+         */
+        long redeliverAt;
+
+    }
+
+}
@@ -0,0 +1,224 @@
+package org.alfresco.genai.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code EventDebouncer} class is a Spring service collapsing bursts of events on the same node into a single
+ * unit of work. Uploading a document and then adding aspects and properties produces several events within seconds,
+ * and every handler would apply its GenAI operation for each of them. Work submitted with the same key is delayed
+ * until no newer work with that key is submitted during the configured window, and only the latest one is run by the
+ * {@link WorkerPool}. Room in the pool is reserved when the work is submitted, so waiting work counts for backpressure.
+ *
+ * <p>Work whose window has expired is dispatched in small batches: the nodes of a batch are resolved with a single
+ * search before handing off the work, so a bulk upload doesn't read every node with a separate request.
+ */
+@Service
+public class EventDebouncer {
+
+    static final Logger LOG = LoggerFactory.getLogger(EventDebouncer.class);
+
+    /**
+     * Time in milliseconds without new events on a node before running the work obtained from configuration. A value
+     * of 0 runs the work immediately.
+     */
+    @Value("${content.service.event.debounce}")
+    long debounceWindow;
+
+    /**
+     * Autowired instance of {@link WorkerPool} running the work.
+     */
+    @Autowired
+    WorkerPool workerPool;
+
+    /**
+     * Maximum number of work items dispatched together obtained from configuration. A value of 1 dispatches every
+     * work item on its own.
+     */
+    @Value("${content.service.event.batch.size}")
+    int batchSize;
+
+    /**
+     * Time in milliseconds to wait for more work before dispatching an incomplete batch obtained from configuration.
+     */
+    @Value("${content.service.event.batch.delay}")
+    long batchDelay;
+
+    /**
+     * Autowired instance of {@link NodeMetadataCache} for resolving the nodes of a batch with a single request.
+     */
+    @Autowired
+    NodeMetadataCache nodeMetadataCache;
+
+    /**
+     * Work waiting for the window to expire by key.
+     */
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Scheduler running the work once the window expires.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Work whose window has expired waiting for the batch to be dispatched, only used by the scheduler thread.
+     */
+    private final List<Ready> batch = new ArrayList<>();
+
+    /**
+     * Scheduled dispatch of an incomplete batch, only used by the scheduler thread.
+     */
+    private ScheduledFuture<?> batchDispatch;
+
+    /**
+     * Initializes the scheduler, which only hands off the work to the {@link WorkerPool} once the window expires.
+     */
+    @PostConstruct
+    public void init() {
+        if (debounceWindow > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "event-debounce");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Stops the scheduler, discarding the work waiting for the window to expire.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Submits work to be run once the window expires, replacing the work with the same key waiting for it. The caller
+     * waits while the worker pool is full.
+     *
+     * @param uuid The unique identifier of the node the work is applied to.
+     * @param key  The key of the work, made of the node and the operation.
+     * @param work The work to be run.
+     */
+    public void submit(String uuid, String key, Runnable work) {
+        if (debounceWindow <= 0) {
+            workerPool.submit(uuid, work);
+            return;
+        }
+        workerPool.acquire();
+        pending.compute(key, (k, previous) -> {
+            if (previous != null) {
+                previous.future.cancel(false);
+                workerPool.release();
+                LOG.debug("Event for {} has been collapsed with a newer one", key);
+            }
+            Pending next = new Pending();
+            next.future = scheduler.schedule(() -> run(uuid, key, next, work), debounceWindow, TimeUnit.MILLISECONDS);
+            return next;
+        });
+    }
+
+    /**
+     * Adds the work to the batch to be dispatched when it is still the latest one submitted with its key. The batch is
+     * dispatched when it is full or when no more work arrives within the batch delay.
+     *
+     * @param uuid    The unique identifier of the node the work is applied to.
+     * @param key     The key of the work.
+     * @param current The pending entry of the work.
+     * @param work    The work to be run.
+     */
+    private void run(String uuid, String key, Pending current, Runnable work) {
+        if (!pending.remove(key, current)) {
+            return;
+        }
+        if (batchSize <= 1) {
+            workerPool.execute(uuid, work);
+            return;
+        }
+        batch.add(new Ready(uuid, work));
+        if (batch.size() >= batchSize) {
+            dispatch();
+        } else if (batchDispatch == null) {
+            batchDispatch = scheduler.schedule(this::dispatch, batchDelay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Resolves the nodes of the batch with a single request and hands off every work item to the worker pool.
+     */
+    private void dispatch() {
+        if (batchDispatch != null) {
+            batchDispatch.cancel(false);
+            batchDispatch = null;
+        }
+        List<Ready> dispatched = new ArrayList<>(batch);
+        batch.clear();
+        Set<String> uuids = new LinkedHashSet<>();
+        for (Ready ready : dispatched) {
+            uuids.add(ready.uuid);
+        }
+        nodeMetadataCache.resolve(uuids);
+        for (Ready ready : dispatched) {
+            workerPool.execute(ready.uuid, ready.work);
+        }
+    }
+
+    /**
+     * Work waiting for the window to expire.
+     */
+    private static class Pending {
+
+        /**
+         * Scheduled run of the work.
+         */
+        volatile ScheduledFuture<?> future;
+
+    }
+
+    /**
+     * Work whose window has expired, waiting for its batch to be dispatched.
+     */
+    private static class Ready {
+
+        /**
+         * The unique identifier of the node the work is applied to.
+         */
+        final String uuid;
+
+        /**
+         * The work to be run.
+         */
+        final Runnable work;
+
+        /**
+         * Creates work waiting for its batch.
+         *
+         * @param uuid The unique identifier of the node the work is applied to.
+         * @param work The work to be run.
+         */
+        Ready(String uuid, Runnable work) {
+            this.uuid = uuid;
+            this.work = work;
+        }
+
+    }
+
+}
@@ -0,0 +1,510 @@
+package org.alfresco.genai.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code FreshnessTracker} class is a Spring service measuring how long the results of the GenAI operations take
+ * to reach the repository, from the time of the repository event to the time the node update is committed.
+ *
+ * <p>The lag of every operation is split into stages: the queue wait, from the event to the start of the work,
+ * covering the broker, the debouncing and the worker pool; the download of the content; the inference, until the
+ * result is handed to {@link NodeUpdateService}; and the write, until the buffered update is committed. Operations
+ * waiting for a PDF rendition keep the time of the original event, so their lag includes the rendition creation.
+ * Redelivered and caught up work keeps the time of its event too, so its lag includes the time it was parked or missed.
+ *
+ * <p>Lags are reported periodically by operation as percentiles, with the ratio of updates within the configured
+ * freshness objective and the nodes with the worst lag since the previous report.
+ */
+@Service
+public class FreshnessTracker {
+
+    static final Logger LOG = LoggerFactory.getLogger(FreshnessTracker.class);
+
+    /**
+     * Time after which work awaiting the commit of its update is forgotten, as its update has failed.
+     */
+    static final Duration STALE = Duration.ofHours(1);
+
+    /**
+     * Maximum number of nodes keeping the time of their event while waiting for a PDF rendition.
+     */
+    static final int MAX_DEFERRED = 10000;
+
+    /**
+     * Percentiles reported for every operation.
+     */
+    static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+    /**
+     * Time in milliseconds between lag reports obtained from configuration, 0 disables the reports.
+     */
+    @Value("${content.service.freshness.report.interval}")
+    long reportInterval;
+
+    /**
+     * Freshness objective in milliseconds obtained from configuration, the maximum lag expected for an update.
+     */
+    @Value("${content.service.freshness.objective}")
+    long freshnessObjective;
+
+    /**
+     * Maximum number of lags sampled by operation between reports obtained from configuration.
+     */
+    @Value("${content.service.freshness.samples}")
+    int sampleSize;
+
+    /**
+     * Number of nodes with the worst lag reported obtained from configuration.
+     */
+    @Value("${content.service.freshness.worst}")
+    int worstSize;
+
+    /**
+     * Work awaiting the commit of its update by node.
+     */
+    private final Map<String, List<Trace>> awaiting = new HashMap<>();
+
+    /**
+     * Earliest time of the events waiting for a PDF rendition by node, evicting the oldest nodes.
+     */
+    private final Map<String, Long> deferred = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_DEFERRED;
+        }
+    };
+
+    /**
+     * Lags sampled since the previous report by operation.
+     */
+    private final Map<String, Samples> samples = new TreeMap<>();
+
+    /**
+     * Work with the worst lag since the previous report, sorted by decreasing lag.
+     */
+    private final List<Trace> worst = new ArrayList<>();
+
+    /**
+     * Scheduler logging the lag reports.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Starts logging the lag reports.
+     */
+    @PostConstruct
+    public void init() {
+        if (reportInterval <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "freshness-report");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::report, reportInterval, reportInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops logging the lag reports.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts measuring the work on a node, when its processing starts.
+     *
+     * @param operation The operation applied to the node.
+     * @param uuid      The unique identifier of the node.
+     * @param eventTime The time in milliseconds of the event that triggered the work.
+     * @return The measure of the work.
+     */
+    public Trace start(String operation, String uuid, long eventTime) {
+        return new Trace(operation, uuid, eventTime, System.currentTimeMillis());
+    }
+
+    /**
+     * Starts measuring the work on a node after its PDF rendition has been created, keeping the time of the earliest
+     * event that requested the rendition.
+     *
+     * @param operation The operation applied to the node.
+     * @param uuid      The unique identifier of the node.
+     * @param eventTime The time in milliseconds of the rendition creation event.
+     * @return The measure of the work.
+     */
+    public synchronized Trace resume(String operation, String uuid, long eventTime) {
+        Long deferredTime = deferred.remove(uuid);
+        return start(operation, uuid, deferredTime == null ? eventTime : Math.min(deferredTime, eventTime));
+    }
+
+    /**
+     * Keeps the time of the event of work waiting for a PDF rendition, to be resumed when the rendition is created.
+     *
+     * @param trace The measure of the work.
+     */
+    public synchronized void defer(Trace trace) {
+        deferred.merge(trace.uuid, trace.eventTime, Math::min);
+    }
+
+    /**
+     * Makes the work await the update of the node, before the GenAI operation is applied.
+     *
+     * @param trace The measure of the work.
+     */
+    public synchronized void await(Trace trace) {
+        awaiting.computeIfAbsent(trace.uuid, uuid -> new ArrayList<>()).add(trace);
+    }
+
+    /**
+     * Forgets work whose operation failed or was discarded.
+     *
+     * @param trace The measure of the work.
+     */
+    public synchronized void discard(Trace trace) {
+        List<Trace> traces = awaiting.get(trace.uuid);
+        if (traces != null) {
+            traces.remove(trace);
+            if (traces.isEmpty()) {
+                awaiting.remove(trace.uuid);
+            }
+        }
+    }
+
+    /**
+     * Records that the result of the work awaiting the update of a node has been obtained.
+     *
+     * @param uuid The unique identifier of the node.
+     */
+    public synchronized void produced(String uuid) {
+        List<Trace> traces = awaiting.get(uuid);
+        if (traces != null) {
+            long now = System.currentTimeMillis();
+            for (Trace trace : traces) {
+                if (trace.producedAt == 0) {
+                    trace.producedAt = now;
+                }
+            }
+        }
+    }
+
+    /**
+     * Records that the update of a node has been committed, or that the node already stored the same values,
+     * completing the measure of the work whose result was included in the update.
+     *
+     * @param uuid The unique identifier of the node.
+     */
+    public synchronized void committed(String uuid) {
+        List<Trace> traces = awaiting.get(uuid);
+        if (traces == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Trace trace : List.copyOf(traces)) {
+            if (trace.producedAt != 0) {
+                trace.committedAt = now;
+                traces.remove(trace);
+                record(trace);
+            }
+        }
+        if (traces.isEmpty()) {
+            awaiting.remove(uuid);
+        }
+    }
+
+    /**
+     * Forgets the work awaiting the update of a node, as the update has failed.
+     *
+     * @param uuid The unique identifier of the node.
+     */
+    public synchronized void failed(String uuid) {
+        List<Trace> traces = awaiting.get(uuid);
+        if (traces != null) {
+            traces.removeIf(trace -> trace.producedAt != 0);
+            if (traces.isEmpty()) {
+                awaiting.remove(uuid);
+            }
+        }
+    }
+
+    /**
+     * Builds the report of the lags measured since the previous report and starts a new one.
+     *
+     * @return The lines of the report, empty if no update has been committed since the previous report.
+     */
+    public synchronized List<String> getReport() {
+        long staleTime = System.currentTimeMillis() - STALE.toMillis();
+        awaiting.values().removeIf(traces -> {
+            traces.removeIf(trace -> trace.startedAt < staleTime);
+            return traces.isEmpty();
+        });
+
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, Samples> entry : samples.entrySet()) {
+            Samples operationSamples = entry.getValue();
+            long[][] lags = Arrays.copyOf(operationSamples.lags, Math.min(operationSamples.count, sampleSize));
+            StringBuilder line = new StringBuilder(entry.getKey())
+                    .append(": ").append(operationSamples.count).append(" updates, ")
+                    .append(String.format("%.1f", 100.0 * operationSamples.withinObjective / operationSamples.count))
+                    .append("% within ").append(format(freshnessObjective)).append(", lag");
+            for (double percentile : PERCENTILES) {
+                line.append(" p").append(Math.round(percentile * 100)).append(' ')
+                        .append(format(percentile(lags, Stage.TOTAL, percentile)));
+            }
+            line.append(" max ").append(format(percentile(lags, Stage.TOTAL, 1))).append(", median");
+            for (Stage stage : Stage.values()) {
+                if (stage != Stage.TOTAL) {
+                    line.append(' ').append(stage.name().toLowerCase()).append(' ')
+                            .append(format(percentile(lags, stage, 0.5)));
+                }
+            }
+            lines.add(line.toString());
+        }
+        if (!worst.isEmpty()) {
+            lines.add("Worst lag: " + String.join(", ", worst.stream()
+                    .map(trace -> trace.uuid + " " + trace.operation + " " + format(trace.getLag()))
+                    .toList()));
+        }
+        samples.clear();
+        worst.clear();
+        return lines;
+    }
+
+    /**
+     * Logs the report of the lags measured since the previous report.
+     */
+    private void report() {
+        getReport().forEach(line -> LOG.info("Freshness {}", line));
+    }
+
+    /**
+     * Records the lag of completed work, sampling it for the percentiles and keeping it when it is one of the worst.
+     *
+     * @param trace The measure of the completed work.
+     */
+    private void record(Trace trace) {
+        long lag = trace.getLag();
+        LOG.debug("{} of node {} has been committed {} ms after its event", trace.operation, trace.uuid, lag);
+
+        Samples operationSamples = samples.computeIfAbsent(trace.operation, operation -> new Samples(sampleSize));
+        long[] stages = new long[Stage.values().length];
+        stages[Stage.TOTAL.ordinal()] = lag;
+        stages[Stage.QUEUE.ordinal()] = trace.startedAt - trace.eventTime;
+        stages[Stage.DOWNLOAD.ordinal()] = trace.downloadedAt - trace.startedAt;
+        stages[Stage.INFERENCE.ordinal()] = trace.producedAt - trace.downloadedAt;
+        stages[Stage.WRITE.ordinal()] = trace.committedAt - trace.producedAt;
+        operationSamples.add(stages);
+        if (lag <= freshnessObjective) {
+            operationSamples.withinObjective++;
+        }
+
+        if (worstSize > 0 && (worst.size() < worstSize || lag > worst.get(worst.size() - 1).getLag())) {
+            for (Trace other : worst) {
+                if (other.uuid.equals(trace.uuid) && other.operation.equals(trace.operation)) {
+                    if (other.getLag() >= lag) {
+                        return;
+                    }
+                    worst.remove(other);
+                    break;
+                }
+            }
+            worst.add(trace);
+            worst.sort(Comparator.comparingLong(Trace::getLag).reversed());
+            if (worst.size() > worstSize) {
+                worst.remove(worst.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * Gets a percentile of the lags of a stage, using the nearest-rank method.
+     *
+     * @param lags       The sampled lags.
+     * @param stage      The stage.
+     * @param percentile The percentile, from 0 to 1.
+     * @return The lag in milliseconds.
+     */
+    private static long percentile(long[][] lags, Stage stage, double percentile) {
+        long[] values = new long[lags.length];
+        for (int i = 0; i < lags.length; i++) {
+            values[i] = lags[i][stage.ordinal()];
+        }
+        Arrays.sort(values);
+        int rank = (int) Math.ceil(percentile * values.length);
+        return values[Math.max(rank - 1, 0)];
+    }
+
+    /**
+     * Formats a lag in seconds.
+     *
+     * @param lag The lag in milliseconds.
+     * @return The formatted lag.
+     */
+    private static String format(long lag) {
+        return String.format("%.1fs", lag / 1000.0);
+    }
+
+    /**
+     * Stages of the lag of an update.
+     */
+    enum Stage {
+        TOTAL, QUEUE, DOWNLOAD, INFERENCE, WRITE
+    }
+
+    /**
+     * Lags of an operation sampled uniformly, keeping a bounded number of samples whatever the number of updates.
+     */
+    private static class Samples {
+
+        /**
+         * Sampled lags by stage.
+         */
+        final long[][] lags;
+
+        /**
+         * Number of updates measured.
+         */
+        int count;
+
+        /**
+         * Number of updates within the freshness objective.
+         */
+        int withinObjective;
+
+        /**
+         * Creates the samples of an operation.
+         *
+         * @param size The maximum number of samples.
+         */
+        Samples(int size) {
+            lags = new long[Math.max(size, 1)][];
+        }
+
+        /**
+         * Adds the lags of an update, replacing a random sample once the maximum number of samples is reached.
+         *
+         * @param stages The lags of the update by stage.
+         */
+        void add(long[] stages) {
+            count++;
+            if (count <= lags.length) {
+                lags[count - 1] = stages;
+            } else {
+                int index = ThreadLocalRandom.current().nextInt(count);
+                if (index < lags.length) {
+                    lags[index] = stages;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * The measure of the work on a node, from the event to the commit of its update.
+     */
+    public static final class Trace {
+
+        /**
+         * The operation applied to the node.
+         */
+        final String operation;
+
+        /**
+         * The unique identifier of the node.
+         */
+        final String uuid;
+
+        /**
+         * The time in milliseconds of the event that triggered the work.
+         */
+        final long eventTime;
+
+        /**
+         * The time in milliseconds the processing started.
+         */
+        final long startedAt;
+
+        /**
+         * The time in milliseconds the content was downloaded.
+         */
+        volatile long downloadedAt;
+
+        /**
+         * The time in milliseconds the result was handed to {@link NodeUpdateService}, 0 until then.
+         */
+        long producedAt;
+
+        /**
+         * The time in milliseconds the update was committed.
+         */
+        long committedAt;
+
+        /**
+         * Creates the measure of the work.
+         *
+         * @param operation The operation applied to the node.
+         * @param uuid      The unique identifier of the node.
+         * @param eventTime The time in milliseconds of the event that triggered the work.
+         * @param startedAt The time in milliseconds the processing started.
+         */
+        Trace(String operation, String uuid, long eventTime, long startedAt) {
+            this.operation = operation;
+            this.uuid = uuid;
+            this.eventTime = eventTime;
+            this.startedAt = startedAt;
+            this.downloadedAt = startedAt;
+        }
+
+        /**
+         * Records that the content of the node has been downloaded.
+         */
+        public void downloaded() {
+            downloadedAt = System.currentTimeMillis();
+        }
+
+        /**
+         * Creates the measure of another operation applied to the same content, sharing the event and download times.
+         *
+         * @param operation The other operation.
+         * @return The measure of the other operation.
+         */
+        public Trace forOperation(String operation) {
+            Trace trace = new Trace(operation, uuid, eventTime, startedAt);
+            trace.downloadedAt = downloadedAt;
+            return trace;
+        }
+
+        /**
+         * Gets the lag from the event to the commit of the update.
+         *
+         * @return The lag in milliseconds.
+         */
+        long getLag() {
+            return committedAt - eventTime;
+        }
+
+    }
+
+}
@@ -9,6 +9,7 @@ import org.alfresco.genai.model.Summary;
 import org.alfresco.genai.model.Term;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.json.JsonParser;
 import org.springframework.boot.json.JsonParserFactory;
@@ -45,6 +46,12 @@ public class GenAiClient {
     Integer genaiTimeout;
 
     
+    /**
+     * Autowired instance of {@link JobRegistry} for aborting the requests of jobs superseded by newer content.
+     */
+    @Autowired
+    JobRegistry jobRegistry;
+
     /**
      * Static instance of {@link JsonParser} to parse JSON responses from the GenAI service.
      */
@@ -68,19 +75,16 @@ public class GenAiClient {
     }
 
     /**
-     * Retrieves a document summary from the GenAI service for the provided PDF file.
+     * Retrieves a document summary from the GenAI service for the provided document file.
      *
-     * @param pdfFile The PDF file for which the summary is requested.
+     * @param file     The PDF or text file for which the summary is requested.
+     * @param mimeType The MIME type of the file.
      * @return A {@link Summary} object containing the summary, tags, and model information.
      * @throws IOException If an I/O error occurs during the HTTP request or response processing.
      */
-    public Summary getSummary(File pdfFile) throws IOException {
+    public Summary getSummary(File file, String mimeType) throws IOException {
 
-        RequestBody requestBody = new MultipartBody
-                .Builder()
-                .setType(MultipartBody.FORM)
-                .addFormDataPart("file", pdfFile.getName(), RequestBody.create(pdfFile, MediaType.parse("application/pdf")))
-                .build();
+        RequestBody requestBody = documentRequestBody(file, mimeType);
 
         Request request = new Request
                 .Builder()
@@ -88,7 +92,7 @@ public class GenAiClient {
                 .post(requestBody)
                 .build();
 
-        String response = client.newCall(request).execute().body().string();
+        String response = jobRegistry.execute(client.newCall(request));
         Map<String, Object> aiResponse = JSON_PARSER.parseMap(response);
         return new Summary()
                 .summary(aiResponse.get("summary").toString().trim())
@@ -98,20 +102,17 @@ public class GenAiClient {
     }
 
     /**
-     * Retrieves an answer to a specific question from the GenAI service for the provided PDF file.
+     * Retrieves an answer to a specific question from the GenAI service for the provided document file.
      *
-     * @param pdfFile   The PDF file containing the document related to the question.
+     * @param file      The PDF or text file containing the document related to the question.
+     * @param mimeType  The MIME type of the file.
      * @param question  The question for which an answer is requested.
      * @return An {@link Answer} object containing the answer and the model information.
      * @throws IOException If an I/O error occurs during the HTTP request or response processing.
      */
-    public Answer getAnswer(File pdfFile, String question) throws IOException {
+    public Answer getAnswer(File file, String mimeType, String question) throws IOException {
 
-        RequestBody requestBody = new MultipartBody
-                .Builder()
-                .setType(MultipartBody.FORM)
-                .addFormDataPart("file", pdfFile.getName(), RequestBody.create(pdfFile, MediaType.parse("application/pdf")))
-                .build();
+        RequestBody requestBody = documentRequestBody(file, mimeType);
 
         HttpUrl httpUrl = HttpUrl.parse(genaiUrl + "/prompt")
                 .newBuilder()
@@ -124,7 +125,7 @@ public class GenAiClient {
                 .post(requestBody)
                 .build();
 
-        String response = client.newCall(request).execute().body().string();
+        String response = jobRegistry.execute(client.newCall(request));
         Map<String, Object> aiResponse = JSON_PARSER.parseMap(response);
         return new Answer()
                 .answer(aiResponse.get("answer").toString().trim())
@@ -133,20 +134,17 @@ public class GenAiClient {
     }
 
     /**
-     * Selects a term from a term list using the GenAI service for the provided PDF file.
+     * Selects a term from a term list using the GenAI service for the provided document file.
      *
-     * @param pdfFile   The PDF file containing the document related to the question.
+     * @param file      The PDF or text file containing the document related to the question.
+     * @param mimeType  The MIME type of the file.
      * @param termList  List of terms that includes options to be selected.
      * @return An {@link Term} object containing the term and the model information.
      * @throws IOException If an I/O error occurs during the HTTP request or response processing.
      */
-    public Term getTerm(File pdfFile, String termList) throws IOException {
+    public Term getTerm(File file, String mimeType, String termList) throws IOException {
 
-        RequestBody requestBody = new MultipartBody
-                .Builder()
-                .setType(MultipartBody.FORM)
-                .addFormDataPart("file", pdfFile.getName(), RequestBody.create(pdfFile, MediaType.parse("application/pdf")))
-                .build();
+        RequestBody requestBody = documentRequestBody(file, mimeType);
 
         HttpUrl httpUrl = HttpUrl.parse(genaiUrl + "/classify")
                 .newBuilder()
@@ -159,7 +157,7 @@ public class GenAiClient {
                 .post(requestBody)
                 .build();
 
-        String response = client.newCall(request).execute().body().string();
+        String response = jobRegistry.execute(client.newCall(request));
 
         Map<String, Object> aiResponse = JSON_PARSER.parseMap(response);
         return new Term()
@@ -193,7 +191,7 @@ public class GenAiClient {
                 .post(requestBody)
                 .build();
 
-        String response = client.newCall(request).execute().body().string();
+        String response = jobRegistry.execute(client.newCall(request));
 
         Map<String, Object> aiResponse = JSON_PARSER.parseMap(response);
         return new Description()
@@ -203,21 +201,18 @@ public class GenAiClient {
     }
     
     /**
-     * Retrieves a document Wikidata entity links from the GenAI service for the provided PDF file.
+     * Retrieves a document Wikidata entity links from the GenAI service for the provided document file.
      *
-     * @param pdfFile The PDF file for which the entity links are requested.
+     * @param file     The PDF or text file for which the entity links are requested.
+     * @param mimeType The MIME type of the file.
      * @return A {@link EntityLinks} object containing the entity links information.
      * @throws IOException If an I/O error occurs during the HTTP request or response processing.
      */
-    public EntityLinks getEntityLinksWikidata(File pdfFile) throws IOException {
+    public EntityLinks getEntityLinksWikidata(File file, String mimeType) throws IOException {
 
     	LOG.info("ai-listener GenAiClient getEntityLinksWikidata");
 
-    	RequestBody requestBody = new MultipartBody
-                .Builder()
-                .setType(MultipartBody.FORM)
-                .addFormDataPart("file", pdfFile.getName(), RequestBody.create(pdfFile, MediaType.parse("application/pdf")))
-                .build();
+        RequestBody requestBody = documentRequestBody(file, mimeType);
 
         Request request = new Request
                 .Builder()
@@ -225,7 +220,7 @@ public class GenAiClient {
                 .post(requestBody)
                 .build();
 
-        String response = client.newCall(request).execute().body().string();
+        String response = jobRegistry.execute(client.newCall(request));
         
         Map<String, Object> aiResponse = JSON_PARSER.parseMap(response);
         
@@ -255,21 +250,18 @@ public class GenAiClient {
     }
     
     /**
-     * Retrieves a document DBpedia entity links from the GenAI service for the provided PDF file.
+     * Retrieves a document DBpedia entity links from the GenAI service for the provided document file.
      *
-     * @param pdfFile The PDF file for which the entity links are requested.
+     * @param file     The PDF or text file for which the entity links are requested.
+     * @param mimeType The MIME type of the file.
      * @return A {@link EntityLinks} object containing the entity links information.
      * @throws IOException If an I/O error occurs during the HTTP request or response processing.
      */
-    public EntityLinks getEntityLinksDBpedia(File pdfFile) throws IOException {
+    public EntityLinks getEntityLinksDBpedia(File file, String mimeType) throws IOException {
 
     	LOG.info("ai-listener GenAiClient getEntityLinksDBpedia");
     	
-        RequestBody requestBody = new MultipartBody
-                .Builder()
-                .setType(MultipartBody.FORM)
-                .addFormDataPart("file", pdfFile.getName(), RequestBody.create(pdfFile, MediaType.parse("application/pdf")))
-                .build();
+        RequestBody requestBody = documentRequestBody(file, mimeType);
 
         Request request = new Request
                 .Builder()
@@ -277,7 +269,7 @@ public class GenAiClient {
                 .post(requestBody)
                 .build();
 
-        String response = client.newCall(request).execute().body().string();
+        String response = jobRegistry.execute(client.newCall(request));
         
         Map<String, Object> aiResponse = JSON_PARSER.parseMap(response);
         
@@ -306,4 +298,19 @@ public class GenAiClient {
                 .target("DBpedia");     
     }
 
+    /**
+     * Builds the multipart request body used to upload a document to the GenAI service.
+     *
+     * @param file     The PDF or text file to be uploaded.
+     * @param mimeType The MIME type of the file.
+     * @return The {@link RequestBody} including the file as "file" form data part.
+     */
+    private RequestBody documentRequestBody(File file, String mimeType) {
+        return new MultipartBody
+                .Builder()
+                .setType(MultipartBody.FORM)
+                .addFormDataPart("file", file.getName(), RequestBody.create(file, MediaType.parse(mimeType)))
+                .build();
+    }
+
 }
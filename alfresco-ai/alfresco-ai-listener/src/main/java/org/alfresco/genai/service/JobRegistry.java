@@ -0,0 +1,199 @@
+package org.alfresco.genai.service;
+
+import jakarta.annotation.PostConstruct;
+import okhttp3.Call;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code JobRegistry} class is a Spring service keeping track of the GenAI jobs in progress for every node. A job
+ * is started by a handler for the event that triggered it, and the requests sent to the GenAI service while the job
+ * runs are registered to it. When newer content of the node arrives, jobs started for older events are cancelled:
+ * their in-flight requests are aborted and their results are discarded, so the GenAI service isn't busy with content
+ * that is already outdated and a stale result is never written after a recent one.
+ */
+@Service
+public class JobRegistry {
+
+    static final Logger LOG = LoggerFactory.getLogger(JobRegistry.class);
+
+    /**
+     * Maximum number of nodes kept in memory obtained from configuration.
+     */
+    @Value("${content.service.node.cache.size}")
+    int nodeCacheSize;
+
+    /**
+     * Jobs in progress by node.
+     */
+    private final Map<String, Set<Job>> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Time of the latest content event by node, evicting the least recently used nodes.
+     */
+    private Map<String, Long> contentVersions;
+
+    /**
+     * Job run by the current thread.
+     */
+    private final ThreadLocal<Job> currentJob = new ThreadLocal<>();
+
+    /**
+     * Initializes the bounded map of content versions.
+     */
+    @PostConstruct
+    public void init() {
+        contentVersions = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > nodeCacheSize;
+            }
+        });
+    }
+
+    /**
+     * Starts a job on a node for the current thread. The job is cancelled from the beginning when the content of the
+     * node has changed after the event that triggered it.
+     *
+     * @param uuid    The unique identifier of the node.
+     * @param version The time in milliseconds of the event that triggered the job.
+     * @return The job, to be finished by the caller.
+     */
+    public Job start(String uuid, long version) {
+        Job job = new Job(uuid, version);
+        jobs.computeIfAbsent(uuid, key -> ConcurrentHashMap.newKeySet()).add(job);
+        Long contentVersion = contentVersions.get(uuid);
+        if (contentVersion != null && contentVersion > version) {
+            job.cancel();
+        }
+        currentJob.set(job);
+        return job;
+    }
+
+    /**
+     * Finishes a job started by the current thread.
+     *
+     * @param job The job.
+     */
+    public void finish(Job job) {
+        currentJob.remove();
+        jobs.computeIfPresent(job.uuid, (key, nodeJobs) -> {
+            nodeJobs.remove(job);
+            return nodeJobs.isEmpty() ? null : nodeJobs;
+        });
+    }
+
+    /**
+     * Records newer content of a node and cancels the jobs started for older events.
+     *
+     * @param uuid    The unique identifier of the node.
+     * @param version The time in milliseconds of the event creating or changing the content.
+     */
+    public void supersede(String uuid, long version) {
+        contentVersions.merge(uuid, version, Math::max);
+        Set<Job> nodeJobs = jobs.get(uuid);
+        if (nodeJobs != null) {
+            for (Job job : nodeJobs) {
+                if (job.version < version && !job.cancelled) {
+                    LOG.info("Content of node {} has changed, GenAI job in progress is cancelled", uuid);
+                    job.cancel();
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes a request to the GenAI service on behalf of the job run by the current thread, so the request can be
+     * aborted when the job is cancelled. Requests sent outside a job are executed as usual.
+     *
+     * @param call The request to be executed.
+     * @return The body of the response.
+     * @throws SupersededException If the job has been cancelled before getting the whole response.
+     * @throws IOException         If an I/O error occurs during the HTTP request or response processing.
+     */
+    public String execute(Call call) throws IOException {
+        Job job = currentJob.get();
+        if (job == null) {
+            try (Response response = call.execute()) {
+                return response.body().string();
+            }
+        }
+        job.calls.add(call);
+        try {
+            if (job.cancelled) {
+                call.cancel();
+            }
+            try (Response response = call.execute()) {
+                String body = response.body().string();
+                if (job.cancelled) {
+                    throw new SupersededException(job.uuid);
+                }
+                return body;
+            }
+        } catch (IOException e) {
+            if (job.cancelled) {
+                throw new SupersededException(job.uuid);
+            }
+            throw e;
+        } finally {
+            job.calls.remove(call);
+        }
+    }
+
+    /**
+     * GenAI job in progress on a node.
+     */
+    public static final class Job {
+
+        /**
+         * The unique identifier of the node.
+         */
+        final String uuid;
+
+        /**
+         * The time in milliseconds of the event that triggered the job.
+         */
+        final long version;
+
+        /**
+         * Requests to the GenAI service in progress.
+         */
+        final Set<Call> calls = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Whether the job has been cancelled by newer content.
+         */
+        volatile boolean cancelled;
+
+        /**
+         * Creates a job.
+         *
+         * @param uuid    The unique identifier of the node.
+         * @param version The time in milliseconds of the event that triggered the job.
+         */
+        Job(String uuid, long version) {
+            this.uuid = uuid;
+            this.version = version;
+        }
+
+        /**
+         * Cancels the job, aborting its requests in progress.
+         */
+        void cancel() {
+            cancelled = true;
+            calls.forEach(Call::cancel);
+        }
+
+    }
+
+}
@@ -0,0 +1,270 @@
+package org.alfresco.genai.service;
+
+import jakarta.annotation.PostConstruct;
+import org.alfresco.core.handler.NodesApi;
+import org.alfresco.core.model.Node;
+import org.alfresco.event.sdk.handling.filter.ContentChangedFilter;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.EventType;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.alfresco.event.sdk.model.v1.model.Resource;
+import org.alfresco.genai.model.NodeMetadata;
+import org.alfresco.search.handler.SearchApi;
+import org.alfresco.search.model.RequestInclude;
+import org.alfresco.search.model.RequestPagination;
+import org.alfresco.search.model.RequestQuery;
+import org.alfresco.search.model.ResultNode;
+import org.alfresco.search.model.ResultSetRowEntry;
+import org.alfresco.search.model.SearchRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The {@code NodeMetadataCache} class is a Spring service keeping the {@link NodeMetadata} of recently seen nodes.
+ * Entries are refreshed from every node event received by the listener and from the responses of node updates, so
+ * handlers can tell if a node requires a GenAI operation without requesting the repository. Nodes not seen yet are
+ * read once from the repository.
+ *
+ * <p>Work dispatched together is resolved with a single search for all its nodes, so a bulk upload doesn't request
+ * the repository once per node.
+ *
+ * <p>Events are consumed concurrently and may arrive late, so a state older than the cached one, according to the
+ * modification time of the node, is ignored. Otherwise the stale aspect names would be sent back to the repository
+ * when adding an aspect, removing the aspects added since.
+ */
+@Service
+public class NodeMetadataCache {
+
+    static final Logger LOG = LoggerFactory.getLogger(NodeMetadataCache.class);
+
+    /**
+     * Prefix of the node references of the nodes in the workspace store.
+     */
+    static final String STORE = "workspace://SpacesStore/";
+
+    /**
+     * Maximum number of nodes kept in memory obtained from configuration.
+     */
+    @Value("${content.service.node.cache.size}")
+    int nodeCacheSize;
+
+    /**
+     * Autowired instance of {@link NodesApi} for reading nodes not seen yet.
+     */
+    @Autowired
+    NodesApi nodesApi;
+
+    /**
+     * Autowired instance of {@link SearchApi} for reading several nodes with a single request.
+     */
+    @Autowired
+    SearchApi searchApi;
+
+    /**
+     * Metadata by node, evicting the least recently used nodes.
+     */
+    private Map<String, NodeMetadata> cache;
+
+    /**
+     * Initializes the bounded cache.
+     */
+    @PostConstruct
+    public void init() {
+        cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, NodeMetadata> eldest) {
+                return size() > nodeCacheSize;
+            }
+        });
+    }
+
+    /**
+     * Refreshes the metadata of the node with the state included in the event, or forgets the node when it has been
+     * deleted. The content stamp only changes when the event creates or changes the content, forgetting the hash of
+     * the previous content. Events older than the cached state are ignored.
+     *
+     * @param repoEvent The event containing information about the node.
+     */
+    public void update(RepoEvent<DataAttributes<Resource>> repoEvent) {
+
+        NodeResource nodeResource = (NodeResource) repoEvent.getData().getResource();
+        String uuid = nodeResource.getId();
+
+        if (EventType.NODE_DELETED.getType().equals(repoEvent.getType())) {
+            cache.remove(uuid);
+            return;
+        }
+
+        long modifiedAt = nodeResource.getModifiedAt() == null ? 0 : nodeResource.getModifiedAt().toInstant().toEpochMilli();
+        boolean contentChanged = changesContent(repoEvent);
+        cache.compute(uuid, (key, previous) -> {
+            if (isStale(previous, modifiedAt)) {
+                LOG.debug("Event on node {} is older than the cached state, it is ignored", uuid);
+                return previous;
+            }
+            String contentStamp = previous == null ? null : previous.getContentStamp();
+            String contentHash = previous == null ? null : previous.getContentHash();
+            if (contentChanged) {
+                contentStamp = nodeResource.getContent().getSizeInBytes() + "@" + repoEvent.getTime();
+                contentHash = null;
+            }
+            return new NodeMetadata()
+                    .aspectNames(nodeResource.getAspectNames() == null ? List.of() : List.copyOf(nodeResource.getAspectNames()))
+                    .contentStamp(contentStamp)
+                    .contentHash(contentHash)
+                    .properties(nodeResource.getProperties() == null ? Map.of() : nodeResource.getProperties())
+                    .modifiedAt(modifiedAt);
+        });
+
+    }
+
+    /**
+     * Checks if a state of the node is older than the cached one.
+     *
+     * @param previous   The cached metadata of the node, or {@code null} if it is not cached.
+     * @param modifiedAt The time in milliseconds of the last modification of the node in the new state, or 0 if it is
+     *                   unknown.
+     * @return {@code true} if both modification times are known and the new state is older, {@code false} otherwise.
+     */
+    private boolean isStale(NodeMetadata previous, long modifiedAt) {
+        return previous != null && modifiedAt > 0 && modifiedAt < previous.getModifiedAt();
+    }
+
+    /**
+     * Checks if the event creates or changes the content of the node.
+     *
+     * @param repoEvent The event containing information about the node.
+     * @return {@code true} if the event includes new content, {@code false} otherwise.
+     */
+    public boolean changesContent(RepoEvent<DataAttributes<Resource>> repoEvent) {
+        NodeResource nodeResource = (NodeResource) repoEvent.getData().getResource();
+        return nodeResource.getContent() != null &&
+                (EventType.NODE_CREATED.getType().equals(repoEvent.getType()) || ContentChangedFilter.get().test(repoEvent));
+    }
+
+    /**
+     * Gets the metadata of the node, reading the node from the repository only when it has not been seen yet.
+     *
+     * @param uuid The unique identifier of the node.
+     * @return The metadata of the node.
+     */
+    public NodeMetadata get(String uuid) {
+        NodeMetadata nodeMetadata = cache.get(uuid);
+        if (nodeMetadata == null) {
+            LOG.debug("Node {} is not cached, reading it from the repository", uuid);
+            nodeMetadata = update(nodesApi.getNode(uuid, null, null, null).getBody().getEntry());
+        }
+        return nodeMetadata;
+    }
+
+    /**
+     * Gets the metadata of the node as read from the repository recently, reading the node again when it has not been
+     * read within the maximum age.
+     *
+     * @param uuid   The unique identifier of the node.
+     * @param maxAge The maximum time in milliseconds since the node was read.
+     * @return The metadata of the node.
+     */
+    public NodeMetadata getResolved(String uuid, long maxAge) {
+        NodeMetadata nodeMetadata = cache.get(uuid);
+        if (nodeMetadata == null || nodeMetadata.getResolvedAt() < System.currentTimeMillis() - maxAge) {
+            nodeMetadata = update(nodesApi.getNode(uuid, null, null, null).getBody().getEntry());
+        }
+        return nodeMetadata;
+    }
+
+    /**
+     * Reads several nodes from the repository with a single search, including their aspects and properties. Nodes not
+     * found, for instance when they are not indexed yet, are read one by one when they are required.
+     *
+     * @param uuids The unique identifiers of the nodes.
+     */
+    public void resolve(Collection<String> uuids) {
+        if (uuids.isEmpty()) {
+            return;
+        }
+        RequestInclude include = new RequestInclude();
+        include.add("aspectNames");
+        include.add("properties");
+        String query = uuids.stream()
+                .map(uuid -> "\"" + STORE + uuid + "\"")
+                .collect(Collectors.joining(" OR ", "ID:(", ")"));
+        try {
+            List<ResultSetRowEntry> entries = searchApi.search(
+                    new SearchRequest()
+                            .query(new RequestQuery()
+                                    .language(RequestQuery.LanguageEnum.AFTS)
+                                    .query(query))
+                            .include(include)
+                            .paging(new RequestPagination().maxItems(uuids.size()).skipCount(0)))
+                    .getBody().getList().getEntries();
+            for (ResultSetRowEntry entry : entries) {
+                ResultNode node = entry.getEntry();
+                update(node.getId(), node.getAspectNames(), node.getProperties(), node.getModifiedAt());
+            }
+            LOG.debug("{} of {} nodes have been resolved with a single search", entries.size(), uuids.size());
+        } catch (RuntimeException e) {
+            LOG.warn("Nodes {} can't be resolved with a single search, they will be read one by one", uuids, e);
+        }
+    }
+
+    /**
+     * Records the hash of the content of the node, as long as the content has not changed since the content stamp
+     * was read. Content not seen in an event has no stamp, so its hash is not kept.
+     *
+     * @param uuid         The unique identifier of the node.
+     * @param contentStamp The stamp of the content the hash was computed from.
+     * @param contentHash  The content hash.
+     */
+    public void setContentHash(String uuid, String contentStamp, String contentHash) {
+        if (contentStamp != null) {
+            cache.computeIfPresent(uuid, (key, nodeMetadata) ->
+                    contentStamp.equals(nodeMetadata.getContentStamp()) ? nodeMetadata.contentHash(contentHash) : nodeMetadata);
+        }
+    }
+
+    /**
+     * Refreshes the metadata of the node with the state returned by the repository when reading or updating it.
+     *
+     * @param node The node returned by the repository.
+     * @return The metadata of the node.
+     */
+    public NodeMetadata update(Node node) {
+        return update(node.getId(), node.getAspectNames(), node.getProperties(), node.getModifiedAt());
+    }
+
+    /**
+     * Refreshes the metadata of the node with the state returned by the repository, keeping the content stamp and hash.
+     * A state older than the cached one is ignored.
+     *
+     * @param uuid        The unique identifier of the node.
+     * @param aspectNames The aspect names of the node.
+     * @param properties  The properties of the node.
+     * @param modifiedAt  The time of the last modification of the node, or {@code null} if it is unknown.
+     * @return The metadata of the node.
+     */
+    private NodeMetadata update(String uuid, List<String> aspectNames, Object properties, OffsetDateTime modifiedAt) {
+        long modifiedTime = modifiedAt == null ? 0 : modifiedAt.toInstant().toEpochMilli();
+        return cache.compute(uuid, (key, previous) -> isStale(previous, modifiedTime) ? previous : new NodeMetadata()
+                .aspectNames(aspectNames == null ? List.of() : List.copyOf(aspectNames))
+                .contentStamp(previous == null ? null : previous.getContentStamp())
+                .contentHash(previous == null ? null : previous.getContentHash())
+                .properties(properties == null ? Map.of() : (Map<String, Serializable>) properties)
+                .resolvedAt(System.currentTimeMillis())
+                .modifiedAt(modifiedTime));
+    }
+
+}
@@ -1,30 +1,56 @@
 package org.alfresco.genai.service;
 
+import feign.FeignException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.alfresco.core.handler.NodesApi;
 import org.alfresco.core.handler.TagsApi;
 import org.alfresco.core.model.NodeBodyUpdate;
+import org.alfresco.core.model.NodeEntry;
 import org.alfresco.core.model.TagBody;
+import org.alfresco.core.model.TagEntry;
+import org.alfresco.core.model.TagPagingList;
 import org.alfresco.genai.model.Answer;
 import org.alfresco.genai.model.Description;
 import org.alfresco.genai.model.EntityLinks;
+import org.alfresco.genai.model.NodeMetadata;
 import org.alfresco.genai.model.Summary;
 import org.alfresco.genai.model.Term;
+import org.alfresco.genai.service.AiOperationService.Operation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.alfresco.genai.model.Description;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
  * The {@code NodeUpdateService} class is a Spring service responsible for updating document nodes in an Alfresco
  * Repository with summary information and answers. It utilizes the Alfresco Nodes API and Tags API for updating node
  * properties and creating tags associated with the document identified by its UUID.
+ *
+ * <p>Updates of the same node can be buffered for a short time and written as a single request, so several operations
+ * finishing together don't create a new version and a new index update each. Work waiting for its results to be
+ * written is only recorded as finished once the buffered update has been written.
  */
 @Service
 public class NodeUpdateService {
@@ -36,6 +62,21 @@ public class NodeUpdateService {
      */
     static final String TAG_PROPERTY = "TAG";
 
+    /**
+     * Aspect and property added by the repository to tagged nodes.
+     */
+    static final String TAGGABLE = "cm:taggable";
+
+    /**
+     * Number of tags retrieved in every request when listing the tags of a node.
+     */
+    static final int TAG_PAGE_SIZE = 100;
+
+    /**
+     * Pattern to collapse consecutive whitespace in tags.
+     */
+    static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     /**
      * The property name for storing the document summary in the Alfresco repository obtained from configuration.
      */
@@ -137,6 +178,38 @@ public class NodeUpdateService {
     
     @Value("${content.service.entitylinks-dbpedia.typelistsDBpedia.property}")
     private String typelistsDBpediaProperty;
+
+    /**
+     * Aspect name for storing the fingerprint of the content processed by GenAI operations.
+     */
+    @Value("${content.service.fingerprint.aspect}")
+    private String fingerprintAspect;
+
+    /**
+     * The property name for storing the hash of the content processed by GenAI operations obtained from configuration,
+     * suffixed with the name of every operation.
+     */
+    @Value("${content.service.fingerprint.hash.property}")
+    private String contentHashProperty;
+
+    /**
+     * Aspect name for storing the processing status shared by every process applying GenAI operations.
+     */
+    @Value("${content.service.processing.aspect}")
+    private String processingAspect;
+
+    /**
+     * The property names for storing the processing status and the lease of the process working on the node obtained
+     * from configuration, suffixed with the operation family.
+     */
+    @Value("${content.service.processing.status.property}")
+    private String statusProperty;
+
+    @Value("${content.service.processing.lease.expiry.property}")
+    private String leaseExpiryProperty;
+
+    @Value("${content.service.processing.lease.owner.property}")
+    private String leaseOwnerProperty;
     
     
     /**
@@ -151,36 +224,153 @@ public class NodeUpdateService {
     @Autowired
     TagsApi tagsApi;
 
+    /**
+     * Autowired instance of {@link NodeMetadataCache} providing the aspects of nodes without reading them.
+     */
+    @Autowired
+    NodeMetadataCache nodeMetadataCache;
+
+    /**
+     * Autowired instance of {@link UpdateLedger} recording the writes of the listener to recognise their events.
+     */
+    @Autowired
+    UpdateLedger updateLedger;
+
+    /**
+     * Autowired instance of {@link FreshnessTracker} for measuring the lag of the results until they are committed.
+     */
+    @Autowired
+    FreshnessTracker freshnessTracker;
+
+    /**
+     * Maximum number of nodes whose aspect names are kept in memory obtained from configuration.
+     */
+    @Value("${content.service.node.cache.size}")
+    int nodeCacheSize;
+
+    /**
+     * Tags applied to recently tagged nodes, to avoid creating the same tag again.
+     */
+    private Map<String, Set<String>> knownTagsCache;
+
+    /**
+     * Primary parent folder of recently seen documents, taken from the primary hierarchy included in events.
+     */
+    private Map<String, String> primaryParentCache;
+
+    /**
+     * Terms for classification by folder, refreshed by the events updating the terms of a folder.
+     */
+    private Map<String, String> termListCache;
+
+    /**
+     * Delay in milliseconds to buffer node updates obtained from configuration. Updates of the same node within this
+     * window are merged into a single request, creating a single version and a single index update. A value of 0
+     * writes every update immediately.
+     */
+    @Value("${content.service.update.delay}")
+    long updateDelay;
+
+    /**
+     * Updates waiting to be written by node.
+     */
+    private final Map<String, PendingUpdate> pendingUpdates = new HashMap<>();
+
+    /**
+     * Updates being written by node, guarded by {@link #pendingUpdates}.
+     */
+    private final Map<String, PendingUpdate> writingUpdates = new HashMap<>();
+
+    /**
+     * Scheduler writing buffered updates once the delay expires.
+     */
+    private ScheduledExecutorService flushScheduler;
+
+    /**
+     * Initializes the bounded caches of tags, parents and term lists, evicting the least recently used nodes, and the scheduler for
+     * buffered updates.
+     */
+    @PostConstruct
+    public void init() {
+        knownTagsCache = lruCache();
+        primaryParentCache = lruCache();
+        termListCache = lruCache();
+        if (updateDelay > 0) {
+            flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "node-update-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Creates a synchronized map holding up to the configured number of nodes, evicting the least recently used ones.
+     *
+     * @param <V> The type of the cached values.
+     * @return The empty cache.
+     */
+    private <V> Map<String, V> lruCache() {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > nodeCacheSize;
+            }
+        });
+    }
+
+    /**
+     * Writes the buffered updates before the application stops.
+     */
+    @PreDestroy
+    public void destroy() {
+        flush();
+        if (flushScheduler != null) {
+            flushScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the name of a property kept for every GenAI operation, made of the configured property name followed by
+     * the capitalized operation name, like {@code genai:contentHashSummary}.
+     *
+     * @param property  The configured property name.
+     * @param operation The name of the GenAI operation.
+     * @return The property name for the operation.
+     */
+    public static String getOperationProperty(String property, String operation) {
+        return property + operation.charAt(0) + operation.substring(1).toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Updates the node properties and creates tags for the document identified by its UUID based on the provided
-     * {@link Summary} object.
+     * {@link Summary} object, together with the hash of the summarized content.
      *
-     * @param uuid     The unique identifier of the document node.
-     * @param summary  The {@link Summary} object containing summary, tags, and model information.
+     * @param uuid        The unique identifier of the document node.
+     * @param summary     The {@link Summary} object containing summary, tags, and model information.
+     * @param contentHash The hash of the document content.
      */
-    public void updateNodeSummary(String uuid, Summary summary) {
+    public void updateNodeSummary(String uuid, Summary summary, String contentHash) {
 
         Map<String, Object> properties = new HashMap<>();
         properties.put(summaryProperty, summary.getSummary());
+        properties.put(getOperationProperty(contentHashProperty, Operation.SUMMARY.name()), contentHash);
         if (!summaryModelProperty.equals(TAG_PROPERTY)) {
             properties.put(summaryModelProperty, summary.getModel());
         }
         if (!summaryTagsProperty.equals(TAG_PROPERTY)) {
             properties.put(summaryTagsProperty, summary.getTags());
         }
-        nodesApi.updateNode(uuid,
-                new NodeBodyUpdate().properties(properties),
-                null, null);
+        updateNode(uuid, properties, Set.of(fingerprintAspect));
 
+        List<String> tags = new ArrayList<>();
         if (summaryModelProperty.equals(TAG_PROPERTY)) {
-            tagsApi.createTagForNode(uuid, new TagBody().tag(summary.getModel()), null);
+            tags.add(summary.getModel());
         }
-
         if (summaryTagsProperty.equals(TAG_PROPERTY)) {
-            summary.getTags().forEach(tag -> {
-                tagsApi.createTagForNode(uuid, new TagBody().tag(tag.replace('.', ' ').trim()), null);
-            });
+            summary.getTags().forEach(tag -> tags.add(tag.replace('.', ' ')));
         }
+        createTags(uuid, tags);
 
     }
 
@@ -192,49 +382,96 @@ public class NodeUpdateService {
      * @param answer  The {@link Answer} object containing the answer content and model information.
      */
     public void updateNodeAnswer(String uuid, Answer answer) {
-        nodesApi.updateNode(uuid,
-                new NodeBodyUpdate()
-                        .properties(Map.of(
-                                answerProperty, answer.getAnswer(),
-                                answerModelProperty, answer.getModel())),
-                null, null);
+        updateNode(uuid,
+                Map.of(
+                        answerProperty, answer.getAnswer(),
+                        answerModelProperty, answer.getModel()),
+                Set.of());
     }
 
     /**
      * Updates the node properties with term content and model information for the document identified by its UUID based
-     * on the provided {@link Term} object.
+     * on the provided {@link Term} object, together with the hash of the classified content.
      *
-     * @param uuid  The unique identifier of the document node.
-     * @param term  The {@link Term} object containing the answer content and model information.
-     */
-    public void updateNodeTerm(String uuid, Term term) {
-        nodesApi.updateNode(uuid,
-                new NodeBodyUpdate()
-                        .properties(Map.of(
-                                termProperty, term.getTerm(),
-                                termModelProperty, term.getModel())),
-                null, null);
+     * @param uuid        The unique identifier of the document node.
+     * @param term        The {@link Term} object containing the answer content and model information.
+     * @param contentHash The hash of the document content.
+     */
+    public void updateNodeTerm(String uuid, Term term, String contentHash) {
+        updateNode(uuid,
+                Map.of(
+                        termProperty, term.getTerm(),
+                        termModelProperty, term.getModel(),
+                        getOperationProperty(contentHashProperty, Operation.CLASSIFY.name()), contentHash),
+                Set.of(fingerprintAspect));
+    }
+
+    /**
+     * Records the primary parent folder of a document already known by the caller, like the one included in the
+     * primary hierarchy of a repository event, so the parent doesn't need to be listed to get the terms.
+     *
+     * @param uuid     The unique identifier of the document node.
+     * @param parentId The unique identifier of the primary parent folder.
+     */
+    public void setPrimaryParentId(String uuid, String parentId) {
+        if (parentId != null) {
+            primaryParentCache.put(uuid, parentId);
+        }
+    }
+
+    /**
+     * Records the terms for classification of a folder when they are updated, or forgets them when they are removed.
+     *
+     * @param folderId The unique identifier of the folder node.
+     * @param terms    The value of the terms property, or {@code null} if it has been removed.
+     */
+    public void setTermList(String folderId, Serializable terms) {
+        if (terms == null) {
+            termListCache.remove(folderId);
+        } else {
+            termListCache.put(folderId, formatTermList(terms));
+        }
     }
 
     /**
-     * Gets the list of terms stored in the primary parent of the document uuid
+     * Gets the list of terms stored in the primary parent of the document uuid. Parents and terms are cached, so the
+     * repository is only requested for folders not seen before.
      *
      * @param uuid  The unique identifier of the document node.
      */
     public String getTermList(String uuid) {
-        String primaryParentId =
-                nodesApi.listParents(uuid, "(isPrimary=true)", null, 0, 1, false, null)
-                        .getBody()
-                        .getList()
-                        .getEntries()
-                        .get(0)
-                        .getEntry()
-                        .getId();
-        Map<String, Serializable> properties = (Map<String, Serializable>)
-                nodesApi.getNode(primaryParentId, null, null, null)
-                .getBody()
-                .getEntry().getProperties();
-        return properties.get(termsProperty).toString().replace("[", "").replace("]", "");
+        String primaryParentId = primaryParentCache.get(uuid);
+        if (primaryParentId == null) {
+            primaryParentId =
+                    nodesApi.listParents(uuid, "(isPrimary=true)", null, 0, 1, false, null)
+                            .getBody()
+                            .getList()
+                            .getEntries()
+                            .get(0)
+                            .getEntry()
+                            .getId();
+            setPrimaryParentId(uuid, primaryParentId);
+        }
+        String termList = termListCache.get(primaryParentId);
+        if (termList == null) {
+            Map<String, Serializable> properties = (Map<String, Serializable>)
+                    nodesApi.getNode(primaryParentId, null, null, null)
+                    .getBody()
+                    .getEntry().getProperties();
+            termList = formatTermList(properties.get(termsProperty));
+            termListCache.put(primaryParentId, termList);
+        }
+        return termList;
+    }
+
+    /**
+     * Formats the multi-valued terms property as the comma separated list expected by the GenAI service.
+     *
+     * @param terms The value of the terms property.
+     * @return The list of terms.
+     */
+    private String formatTermList(Serializable terms) {
+        return terms.toString().replace("[", "").replace("]", "");
     }
 
     /**
@@ -246,80 +483,328 @@ public class NodeUpdateService {
      */
     public void updateNodeDescription(String uuid, Description description) {
 
-        List<String> aspectNames =
-                nodesApi.getNode(uuid, null, null, null).getBody().getEntry().getAspectNames();
-        if (!aspectNames.contains(descriptionAspect)) {
-            aspectNames.add(descriptionAspect);
-        }
+        updateNode(uuid,
+                Map.of(
+                        descriptionProperty, description.getDescription(),
+                        descriptionModelProperty, description.getModel()),
+                Set.of(descriptionAspect));
+    }
 
-        nodesApi.updateNode(uuid,
-                new NodeBodyUpdate()
-                        .properties(Map.of(
-                                descriptionProperty, description.getDescription(),
-                                descriptionModelProperty, description.getModel()))
-                        .aspectNames(aspectNames),
-                null, null);
+    /**
+     * Retrieves the description and model information stored in the picture identified by its UUID.
+     *
+     * @param uuid The unique identifier of the picture node.
+     * @return The {@link Description} stored in the picture, or {@code null} if the picture has not been described or
+     *         has been removed.
+     */
+    public Description getNodeDescription(String uuid) {
+        synchronized (pendingUpdates) {
+            PendingUpdate pendingUpdate = pendingUpdates.get(uuid);
+            if (pendingUpdate != null && pendingUpdate.properties.get(descriptionProperty) != null) {
+                return new Description()
+                        .description(pendingUpdate.properties.get(descriptionProperty).toString())
+                        .model((String) pendingUpdate.properties.get(descriptionModelProperty));
+            }
+        }
+        Map<String, Serializable> properties;
+        try {
+            properties = (Map<String, Serializable>) nodesApi.getNode(uuid, null, null, null).getBody()
+                    .getEntry().getProperties();
+        } catch (FeignException.NotFound e) {
+            return null;
+        }
+        if (properties == null || properties.get(descriptionProperty) == null) {
+            return null;
+        }
+        return new Description()
+                .description(properties.get(descriptionProperty).toString())
+                .model(properties.get(descriptionModelProperty) == null ?
+                        null : properties.get(descriptionModelProperty).toString());
     }
     
     /**
      * Updates the node properties with Wikidata entity links for the document identified by its UUID based
-     * on the provided {@link EntityLinks} object.
+     * on the provided {@link EntityLinks} object, together with the hash of the linked content.
      *
      * @param uuid         The unique identifier of the document node.
      * @param entityLinks  The {@link EntityLinks} object containing the entity links data.
+     * @param contentHash  The hash of the document content.
      */
-    public void updateNodeEntityLinksWikidata(String uuid, EntityLinks entityLinks) {
+    public void updateNodeEntityLinksWikidata(String uuid, EntityLinks entityLinks, String contentHash) {
 
        	LOG.info("ai-listener NodeUpdateService updateNodeEntityLinksWikidata");  	
     	
-        List<String> aspectNames =
-                nodesApi.getNode(uuid, null, null, null).getBody().getEntry().getAspectNames();
-        if (!aspectNames.contains(entityLinksWikidataAspect)) {
-            aspectNames.add(entityLinksWikidataAspect);
-        }
-
-        nodesApi.updateNode(uuid,
-                new NodeBodyUpdate()
-                        .properties(Map.of(
-                        		labelsWikidataProperty, entityLinks.getEntityLabels(),
-                                linksWikidataProperty, entityLinks.getEntityLinks(),
-                                typelistsWikidataProperty, entityLinks.getEntityTypeLists() ))
-                        .aspectNames(aspectNames),
-                null, null);
-
-        entityLinks.getEntityLabels().forEach(tag ->
-    		tagsApi.createTagForNode(uuid, new TagBody().tag(tag.replace('.', ' ').trim()), null));        
+        updateNode(uuid,
+                Map.of(
+                        labelsWikidataProperty, entityLinks.getEntityLabels(),
+                        linksWikidataProperty, entityLinks.getEntityLinks(),
+                        typelistsWikidataProperty, entityLinks.getEntityTypeLists(),
+                        getOperationProperty(contentHashProperty, Operation.ENTITYLINKWIKIDATA.name()), contentHash),
+                Set.of(entityLinksWikidataAspect, fingerprintAspect));
+
+        createTags(uuid, entityLinks.getEntityLabels().stream().map(tag -> tag.replace('.', ' ')).toList());
     }
 
     /**
      * Updates the node properties with DBpedia entity links for the document identified by its UUID based
-     * on the provided {@link EntityLinks} object.
+     * on the provided {@link EntityLinks} object, together with the hash of the linked content.
      *
      * @param uuid         The unique identifier of the document node.
      * @param entityLinks  The {@link EntityLinks} object containing the entity links data.
+     * @param contentHash  The hash of the document content.
      */
-    public void updateNodeEntityLinksDBpedia(String uuid, EntityLinks entityLinks) {
+    public void updateNodeEntityLinksDBpedia(String uuid, EntityLinks entityLinks, String contentHash) {
 
        	LOG.info("ai-listener NodeUpdateService updateNodeEntityLinksDBpedia");    	
 
-       	List<String> aspectNames =
-                nodesApi.getNode(uuid, null, null, null).getBody().getEntry().getAspectNames();
-        if (!aspectNames.contains(entityLinksDBpediaAspect)) {
-            aspectNames.add(entityLinksDBpediaAspect);
+        updateNode(uuid,
+                Map.of(
+                        labelsDBpediaProperty, entityLinks.getEntityLabels(),
+                        linksDBpediaProperty, entityLinks.getEntityLinks(),
+                        typelistsDBpediaProperty, entityLinks.getEntityTypeLists(),
+                        getOperationProperty(contentHashProperty, Operation.ENTITYLINKDBPEDIA.name()), contentHash),
+                Set.of(entityLinksDBpediaAspect, fingerprintAspect));
+
+        createTags(uuid, entityLinks.getEntityLabels().stream().map(tag -> tag.replace('.', ' ')).toList());
+    }
+
+    /**
+     * Updates the processing status of an operation family of the node and the lease of the process working on it.
+     * The status is buffered like any other update, so taking the node, the results of the operation and releasing
+     * the node are written together when the operation finishes within the update delay.
+     *
+     * @param uuid        The unique identifier of the node.
+     * @param family      The operation family.
+     * @param status      The processing status.
+     * @param leaseExpiry The time until the node is kept by the process, or {@code null} to release it.
+     * @param leaseOwner  The name of the process keeping the node, or {@code null} to release it.
+     */
+    public void updateNodeStatus(String uuid, String family, String status, String leaseExpiry, String leaseOwner) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(getOperationProperty(statusProperty, family), status);
+        properties.put(getOperationProperty(leaseExpiryProperty, family), leaseExpiry);
+        properties.put(getOperationProperty(leaseOwnerProperty, family), leaseOwner);
+        updateNode(uuid, properties, Set.of(processingAspect));
+    }
+
+    /**
+     * Tags the node with the normalized (lowercase with single spaces) and deduplicated tags. Tags already applied to the node are skipped, so only
+     * new tags produce a request.
+     *
+     * @param uuid The unique identifier of the node.
+     * @param tags The tags obtained from the GenAI service.
+     */
+    private void createTags(String uuid, Collection<String> tags) {
+        Set<String> knownTags = getKnownTags(uuid);
+        tags.stream()
+                .filter(Objects::nonNull)
+                .map(tag -> WHITESPACE.matcher(tag).replaceAll(" ").trim().toLowerCase(Locale.ROOT))
+                .filter(tag -> !tag.isEmpty())
+                .distinct()
+                .filter(tag -> !knownTags.contains(tag))
+                .forEach(tag -> {
+                    updateLedger.record(uuid, Set.of(TAGGABLE), Set.of(TAGGABLE));
+                    tagsApi.createTagForNode(uuid, new TagBody().tag(tag), null);
+                    knownTags.add(tag);
+                });
+    }
+
+    /**
+     * Gets the tags applied to the node, listing them from the repository only the first time the node is tagged.
+     *
+     * @param uuid The unique identifier of the node.
+     * @return The mutable set of lowercase tags applied to the node.
+     */
+    private Set<String> getKnownTags(String uuid) {
+        Set<String> knownTags = knownTagsCache.get(uuid);
+        if (knownTags == null) {
+            knownTags = ConcurrentHashMap.newKeySet();
+            int skipCount = 0;
+            TagPagingList tagPage;
+            do {
+                tagPage = tagsApi.listTagsForNode(uuid, skipCount, TAG_PAGE_SIZE, null).getBody().getList();
+                for (TagEntry tagEntry : tagPage.getEntries()) {
+                    knownTags.add(tagEntry.getEntry().getTag().toLowerCase(Locale.ROOT));
+                }
+                skipCount += TAG_PAGE_SIZE;
+            } while (Boolean.TRUE.equals(tagPage.getPagination().isHasMoreItems()));
+            knownTagsCache.put(uuid, knownTags);
         }
+        return knownTags;
+    }
 
-        nodesApi.updateNode(uuid,
-                new NodeBodyUpdate()
-                        .properties(Map.of(
-                        		labelsDBpediaProperty, entityLinks.getEntityLabels(),
-                                linksDBpediaProperty, entityLinks.getEntityLinks(),
-                                typelistsDBpediaProperty, entityLinks.getEntityTypeLists() ))
-                        .aspectNames(aspectNames),
-                null, null);
+    /**
+     * Buffers an update of the node, merging it with the pending updates of the same node. The update is written
+     * immediately when buffering is disabled. Updates other than the processing status carry the result of an
+     * operation, completing its inference stage.
+     *
+     * @param uuid       The unique identifier of the node.
+     * @param properties The properties to be updated.
+     * @param aspects    The aspects required by the properties, empty if they don't belong to an aspect.
+     */
+    private void updateNode(String uuid, Map<String, ?> properties, Set<String> aspects) {
+        if (!aspects.contains(processingAspect)) {
+            freshnessTracker.produced(uuid);
+        }
+        if (updateDelay <= 0) {
+            try {
+                writeNode(uuid, properties, aspects);
+            } catch (RuntimeException e) {
+                freshnessTracker.failed(uuid);
+                throw e;
+            }
+            return;
+        }
+        synchronized (pendingUpdates) {
+            PendingUpdate pendingUpdate = pendingUpdates.get(uuid);
+            if (pendingUpdate == null) {
+                pendingUpdate = new PendingUpdate();
+                pendingUpdates.put(uuid, pendingUpdate);
+                flushScheduler.schedule(() -> flush(uuid), updateDelay, TimeUnit.MILLISECONDS);
+            }
+            pendingUpdate.properties.putAll(properties);
+            pendingUpdate.aspects.addAll(aspects);
+        }
+    }
+
+    /**
+     * Runs a task once the updates of the node buffered so far have been written to the repository, or at once when
+     * there is no such update. The task is not run when the update fails, as its results have not been stored.
+     *
+     * @param uuid     The unique identifier of the node.
+     * @param callback The task to be run.
+     */
+    public void afterFlush(String uuid, Runnable callback) {
+        synchronized (pendingUpdates) {
+            PendingUpdate pendingUpdate = pendingUpdates.get(uuid);
+            if (pendingUpdate == null) {
+                pendingUpdate = writingUpdates.get(uuid);
+            }
+            if (pendingUpdate != null) {
+                pendingUpdate.callbacks.add(callback);
+                return;
+            }
+        }
+        callback.run();
+    }
+
+    /**
+     * Writes every pending update to the repository.
+     */
+    public void flush() {
+        List<String> uuids;
+        synchronized (pendingUpdates) {
+            uuids = new ArrayList<>(pendingUpdates.keySet());
+        }
+        uuids.forEach(this::flush);
+    }
+
+    /**
+     * Writes the pending update of the node to the repository as a single request, and then runs the tasks waiting
+     * for it. As the update is no longer related to the operation that produced it, errors are logged and the tasks
+     * are not run.
+     *
+     * @param uuid The unique identifier of the node.
+     */
+    private void flush(String uuid) {
+        PendingUpdate pendingUpdate;
+        synchronized (pendingUpdates) {
+            pendingUpdate = pendingUpdates.remove(uuid);
+            if (pendingUpdate != null) {
+                writingUpdates.put(uuid, pendingUpdate);
+            }
+        }
+        if (pendingUpdate != null) {
+            boolean written = false;
+            try {
+                writeNode(uuid, pendingUpdate.properties, pendingUpdate.aspects);
+                written = true;
+            } catch (RuntimeException e) {
+                freshnessTracker.failed(uuid);
+                LOG.error("Error updating node {}, its work is replayed on restart", uuid, e);
+            } finally {
+                synchronized (pendingUpdates) {
+                    writingUpdates.remove(uuid, pendingUpdate);
+                }
+            }
+            if (written) {
+                pendingUpdate.callbacks.forEach(Runnable::run);
+            }
+        }
+    }
+
+    /**
+     * Updates the node and keeps the aspect names returned by the repository for next updates. As the list of aspect
+     * names replaces every aspect of the node, it is only sent when some of the aspects are missing. Properties are
+     * compared with the values known from events and previous updates, and the node is not updated when every value
+     * and aspect is already stored. Either way, the results included in the update are then visible in the repository.
+     *
+     * @param uuid       The unique identifier of the node.
+     * @param properties The properties to be updated.
+     * @param aspects    The aspects required by the properties.
+     */
+    private void writeNode(String uuid, Map<String, ?> properties, Set<String> aspects) {
+        NodeMetadata nodeMetadata = nodeMetadataCache.get(uuid);
+        Map<String, Object> changedProperties = getChangedProperties(properties, nodeMetadata.getProperties());
+        List<String> aspectNames = nodeMetadata.getAspectNames();
+        if (changedProperties.isEmpty() && aspectNames.containsAll(aspects)) {
+            LOG.debug("Node {} already stores the same values, update is skipped", uuid);
+            freshnessTracker.committed(uuid);
+            return;
+        }
+        NodeBodyUpdate nodeBodyUpdate = new NodeBodyUpdate().properties(changedProperties);
+        Set<String> addedAspects = new LinkedHashSet<>(aspects);
+        addedAspects.removeAll(aspectNames);
+        if (!addedAspects.isEmpty()) {
+            Set<String> updatedAspectNames = new LinkedHashSet<>(aspectNames);
+            updatedAspectNames.addAll(addedAspects);
+            nodeBodyUpdate.aspectNames(new ArrayList<>(updatedAspectNames));
+        }
+        updateLedger.record(uuid, changedProperties.keySet(), addedAspects);
+        ResponseEntity<NodeEntry> response = nodesApi.updateNode(uuid, nodeBodyUpdate, null, null);
+        if (response != null && response.getBody() != null) {
+            nodeMetadataCache.update(response.getBody().getEntry());
+        }
+        freshnessTracker.committed(uuid);
+    }
+
+    /**
+     * Gets the properties whose value differs from the value already stored in the node, so unchanged values produced
+     * again by the GenAI service don't create a new version of the node.
+     *
+     * @param properties      The properties to be updated.
+     * @param knownProperties The properties stored in the node, or {@code null} if they are unknown.
+     * @return The properties to be written.
+     */
+    private Map<String, Object> getChangedProperties(Map<String, ?> properties, Map<String, ?> knownProperties) {
+        Map<String, Object> changedProperties = new HashMap<>(properties);
+        if (knownProperties != null) {
+            changedProperties.entrySet().removeIf(property ->
+                    Objects.equals(property.getValue(), knownProperties.get(property.getKey())));
+        }
+        return changedProperties;
+    }
 
+    /**
+     * Properties and aspects waiting to be written to a node.
+     */
+    private static class PendingUpdate {
+
+        /**
+         * Properties to be updated, the latest value of a property replaces the previous one.
+         */
+        final Map<String, Object> properties = new HashMap<>();
+
+        /**
+         * Aspects required by the properties.
+         */
+        final Set<String> aspects = new LinkedHashSet<>();
+
+        /**
+         * Tasks run once the update has been written.
+         */
+        final List<Runnable> callbacks = new ArrayList<>();
 
-        entityLinks.getEntityLabels().forEach(tag ->
-    		tagsApi.createTagForNode(uuid, new TagBody().tag(tag.replace('.', ' ').trim()), null));                
     }
-        
+
 }
@@ -0,0 +1,354 @@
+package org.alfresco.genai.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import jakarta.jms.Topic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * The {@code PartitionService} class is a Spring service sharing the nodes between the listener instances consuming
+ * events from the same repository. Every instance receives every event from the repository topic, so each node is
+ * owned by a single instance and the other ones ignore the events of the node.
+ *
+ * <p>Instances announce themselves with heartbeats on a broker topic, and each node is owned by the live instance with
+ * the highest rendezvous hash of the node id and the instance name. Every instance computes the same owner without any
+ * coordination, and when an instance joins or leaves only the nodes it owns, or will own, move to another instance.
+ * An instance leaves when it stops or when its heartbeats are missing for the configured expiry.
+ *
+ * <p>No instance handles the events of the nodes owned by an instance that crashed until it expires, so the listeners
+ * registered with {@link #onMemberLeft(BiConsumer)} catch up the nodes taken from an instance leaving. A new instance
+ * listens to the heartbeats of the other ones for two heartbeat intervals before starting, so it doesn't take every
+ * node meanwhile, and it only announces itself once it is ready: until then, the nodes it will own are still handled
+ * by their previous owner, which may only duplicate work instead of losing it.
+ *
+ * <p>Instances with a different role share the nodes on a topic of their own, named after the role, as every node has
+ * to be owned by an instance of each role.
+ */
+@Service
+public class PartitionService {
+
+    static final Logger LOG = LoggerFactory.getLogger(PartitionService.class);
+
+    /**
+     * Type of the message announcing a live instance.
+     */
+    static final String HEARTBEAT = "heartbeat";
+
+    /**
+     * Type of the message announcing a stopping instance.
+     */
+    static final String LEAVE = "leave";
+
+    /**
+     * Name of this instance, shared with the owner of the processing leases.
+     */
+    static final String MEMBER = ProcessingStatusService.OWNER;
+
+    /**
+     * Broker topic used to announce the listener instances obtained from configuration, an empty value disables
+     * partitioning and this instance owns every node.
+     */
+    @Value("${content.service.partition.topic}")
+    String partitionTopic;
+
+    /**
+     * Time in milliseconds between heartbeats obtained from configuration.
+     */
+    @Value("${content.service.partition.heartbeat}")
+    long heartbeatInterval;
+
+    /**
+     * Time in milliseconds without heartbeats before an instance is considered gone obtained from configuration.
+     */
+    @Value("${content.service.partition.expiry}")
+    long memberExpiry;
+
+    /**
+     * Autowired instance of {@link ConnectionFactory} for the broker delivering the repository events.
+     */
+    @Autowired
+    ConnectionFactory connectionFactory;
+
+    /**
+     * Autowired instance of {@link RoleService} for sharing nodes only with instances applying the same operations.
+     */
+    @Autowired
+    RoleService roleService;
+
+    /**
+     * Time of the latest heartbeat by instance.
+     */
+    private final Map<String, Long> heartbeats = new ConcurrentHashMap<>();
+
+    /**
+     * Sorted names of the live instances, including this one.
+     */
+    private volatile List<String> members = List.of(MEMBER);
+
+    /**
+     * Listeners notified when an instance leaves, with the time of its latest heartbeat and the filter of the nodes
+     * taken by this instance.
+     */
+    private final List<BiConsumer<Long, Predicate<String>>> leaveListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Tells if this instance has announced itself to the other ones.
+     */
+    private volatile boolean joined;
+
+    /**
+     * Connection to the broker.
+     */
+    private Connection connection;
+
+    /**
+     * Session sending the announcements of this instance.
+     */
+    private Session producerSession;
+
+    /**
+     * Producer of the announcements of this instance.
+     */
+    private MessageProducer producer;
+
+    /**
+     * Scheduler sending heartbeats and expiring the instances gone.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Subscribes to the announcements of the other instances and waits two heartbeat intervals to know them before
+     * any event is handled.
+     *
+     * @throws JMSException If the topic can't be subscribed.
+     */
+    @PostConstruct
+    public void init() throws JMSException {
+        if (partitionTopic == null || partitionTopic.isBlank()) {
+            return;
+        }
+        String role = roleService.getRole();
+        if (!role.isEmpty()) {
+            partitionTopic = partitionTopic + "." + role.replace(',', '-');
+        }
+        connection = connectionFactory.createConnection();
+        connection.setExceptionListener(e -> LOG.warn("Error on partition topic {}", partitionTopic, e));
+        Session consumerSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        consumerSession.createConsumer(consumerSession.createTopic(partitionTopic)).setMessageListener(this::onMessage);
+        producerSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        Topic topic = producerSession.createTopic(partitionTopic);
+        producer = producerSession.createProducer(topic);
+        producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+        producer.setTimeToLive(memberExpiry);
+        connection.start();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "partition-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Thread.sleep(2 * heartbeatInterval);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOG.info("Listener instance {} found {} other instances on partition topic {}", MEMBER, heartbeats.size(),
+                partitionTopic);
+    }
+
+    /**
+     * Starts sending heartbeats once the handlers are receiving events, so the nodes of this instance are only given
+     * up by the other instances when this instance handles them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void join() {
+        if (scheduler == null) {
+            return;
+        }
+        joined = true;
+        scheduler.scheduleWithFixedDelay(this::heartbeat, 0, heartbeatInterval, TimeUnit.MILLISECONDS);
+        LOG.info("Listener instance {} is sharing nodes on partition topic {}", MEMBER, partitionTopic);
+    }
+
+    /**
+     * Registers a listener notified when another instance leaves, to catch up the nodes it owned. The listener
+     * receives the time in milliseconds of the latest heartbeat of the instance and the filter of the nodes taken by
+     * this instance.
+     *
+     * @param listener The listener.
+     */
+    public void onMemberLeft(BiConsumer<Long, Predicate<String>> listener) {
+        leaveListeners.add(listener);
+    }
+
+    /**
+     * Announces that this instance is leaving, so its nodes are taken by the other instances at once.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (connection == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        send(LEAVE);
+        try {
+            connection.close();
+        } catch (JMSException e) {
+            LOG.warn("Error closing partition topic {}", partitionTopic, e);
+        }
+    }
+
+    /**
+     * Checks if the node is owned by this instance, so its events have to be handled by this instance.
+     *
+     * @param uuid The unique identifier of the node.
+     * @return {@code true} if this instance owns the node, {@code false} if another instance does.
+     */
+    public boolean isOwned(String uuid) {
+        List<String> current = members;
+        return current.size() == 1 || MEMBER.equals(getOwner(current, uuid));
+    }
+
+    /**
+     * Gets the instance owning a node among some instances.
+     *
+     * @param candidates The names of the instances.
+     * @param uuid       The unique identifier of the node.
+     * @return The name of the instance with the highest rendezvous weight for the node.
+     */
+    private String getOwner(List<String> candidates, String uuid) {
+        String owner = null;
+        long highest = Long.MIN_VALUE;
+        for (String member : candidates) {
+            long weight = weight(member, uuid);
+            if (owner == null || weight > highest) {
+                owner = member;
+                highest = weight;
+            }
+        }
+        return owner;
+    }
+
+    /**
+     * Computes the rendezvous weight of a node for an instance.
+     *
+     * @param member The name of the instance.
+     * @param uuid   The unique identifier of the node.
+     * @return The weight, the instance with the highest weight owns the node.
+     */
+    private long weight(String member, String uuid) {
+        long hash = member.hashCode() * 0x9E3779B97F4A7C15L + uuid.hashCode();
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Sends a heartbeat of this instance and forgets the instances whose heartbeats are missing.
+     */
+    private void heartbeat() {
+        send(HEARTBEAT);
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Long> entry : heartbeats.entrySet()) {
+            if (now - entry.getValue() > memberExpiry && heartbeats.remove(entry.getKey(), entry.getValue())) {
+                LOG.warn("Listener instance {} has expired, its nodes are taken by the other instances", entry.getKey());
+                leave(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Removes an instance from the live instances and notifies the listeners of the nodes taken by this instance.
+     *
+     * @param member        The name of the instance leaving.
+     * @param lastHeartbeat The time in milliseconds of the latest heartbeat of the instance.
+     */
+    private void leave(String member, long lastHeartbeat) {
+        List<String> previous = new ArrayList<>(members);
+        previous.add(member);
+        updateMembers();
+        Predicate<String> taken = uuid -> member.equals(getOwner(previous, uuid)) && isOwned(uuid);
+        leaveListeners.forEach(listener -> listener.accept(lastHeartbeat, taken));
+    }
+
+    /**
+     * Updates the live instances with an announcement. Once this instance has joined, a heartbeat of an unknown
+     * instance is answered at once, so a new instance knows the other ones before handling events.
+     *
+     * @param message The announcement of an instance.
+     */
+    private void onMessage(Message message) {
+        try {
+            String member = ((TextMessage) message).getText();
+            if (MEMBER.equals(member)) {
+                return;
+            }
+            if (LEAVE.equals(message.getJMSType())) {
+                Long lastHeartbeat = heartbeats.remove(member);
+                if (lastHeartbeat != null) {
+                    leave(member, lastHeartbeat);
+                }
+                return;
+            }
+            if (heartbeats.put(member, System.currentTimeMillis()) == null && joined) {
+                send(HEARTBEAT);
+            }
+            updateMembers();
+        } catch (JMSException | ClassCastException e) {
+            LOG.warn("Invalid message on partition topic {}", partitionTopic, e);
+        }
+    }
+
+    /**
+     * Sends an announcement of this instance.
+     *
+     * @param type {@link #HEARTBEAT} or {@link #LEAVE}.
+     */
+    private synchronized void send(String type) {
+        try {
+            TextMessage message = producerSession.createTextMessage(MEMBER);
+            message.setJMSType(type);
+            producer.send(message);
+        } catch (JMSException e) {
+            LOG.warn("Error sending {} to partition topic {}", type, partitionTopic, e);
+        }
+    }
+
+    /**
+     * Recomputes the live instances, logging the change so the rebalancing of the nodes can be followed.
+     */
+    private synchronized void updateMembers() {
+        List<String> current = new ArrayList<>(heartbeats.keySet());
+        current.add(MEMBER);
+        current.sort(null);
+        if (!current.equals(members)) {
+            members = List.copyOf(current);
+            LOG.info("Nodes are shared by {} listener instances: {}", current.size(), current);
+        }
+    }
+
+}
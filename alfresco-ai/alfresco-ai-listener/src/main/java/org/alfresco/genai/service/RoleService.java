@@ -0,0 +1,163 @@
+package org.alfresco.genai.service;
+
+import jakarta.annotation.PostConstruct;
+import org.alfresco.genai.service.AiOperationService.Operation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * The {@code RoleService} class is a Spring service providing the role of the listener instance: the families of
+ * GenAI operations it applies. Every family is applied by default, and a deployment can be restricted to some of them,
+ * so slow operations like entity linking are scaled out on their own instances without scaling out the other ones.
+ *
+ * <p>The families are the content operations of {@link Operation}, the description of pictures
+ * ({@link #DESCRIPTION}) and the answer to prompts ({@link #PROMPT}). Handlers of disabled families are not registered.
+ */
+@Service
+public class RoleService {
+
+    static final Logger LOG = LoggerFactory.getLogger(RoleService.class);
+
+    /**
+     * Family of the summary of documents, named after {@link Operation#SUMMARY}.
+     */
+    public static final String SUMMARY = "SUMMARY";
+
+    /**
+     * Family of the classification of documents, named after {@link Operation#CLASSIFY}.
+     */
+    public static final String CLASSIFY = "CLASSIFY";
+
+    /**
+     * Family of the Wikidata entity linking of documents, named after {@link Operation#ENTITYLINKWIKIDATA}.
+     */
+    public static final String ENTITYLINKWIKIDATA = "ENTITYLINKWIKIDATA";
+
+    /**
+     * Family of the DBpedia entity linking of documents, named after {@link Operation#ENTITYLINKDBPEDIA}.
+     */
+    public static final String ENTITYLINKDBPEDIA = "ENTITYLINKDBPEDIA";
+
+    /**
+     * Family of the description of pictures.
+     */
+    public static final String DESCRIPTION = "DESCRIPTION";
+
+    /**
+     * Family of the answer to prompts.
+     */
+    public static final String PROMPT = "PROMPT";
+
+    /**
+     * Name of the property listing the operation families enabled on this instance.
+     */
+    public static final String OPERATIONS_PROPERTY = "content.service.operations";
+
+    /**
+     * Comma-separated operation families enabled on this instance obtained from configuration, an empty value enables
+     * every family.
+     */
+    @Value("${" + OPERATIONS_PROPERTY + "}")
+    String operations;
+
+    /**
+     * Validates and logs the role of the instance. An unknown operation family stops the listener, as a misspelled
+     * family would silently disable its handlers.
+     *
+     * @throws IllegalStateException If the role includes an unknown operation family.
+     */
+    @PostConstruct
+    public void init() {
+        Set<String> families = getFamilies(operations);
+        Set<String> knownFamilies = getKnownFamilies();
+        for (String family : families) {
+            if (!knownFamilies.contains(family)) {
+                throw new IllegalStateException("Unknown operation family " + family + " in " + OPERATIONS_PROPERTY +
+                        ", expected any of " + knownFamilies);
+            }
+        }
+        LOG.info("Listener instance applies {} operations", families.isEmpty() ? "all" : families);
+    }
+
+    /**
+     * Gets the operation families that can be enabled on an instance: the content operations of {@link Operation},
+     * the description of pictures and the answer to prompts.
+     *
+     * @return The sorted operation families.
+     */
+    public static Set<String> getKnownFamilies() {
+        Set<String> families = Arrays.stream(Operation.values())
+                .map(Operation::name)
+                .collect(Collectors.toCollection(TreeSet::new));
+        families.add(DESCRIPTION);
+        families.add(PROMPT);
+        return families;
+    }
+
+    /**
+     * Checks if a family of operations is applied by this instance.
+     *
+     * @param family The operation family.
+     * @return {@code true} if the family is enabled, {@code false} otherwise.
+     */
+    public boolean isEnabled(String family) {
+        return isEnabled(operations, family);
+    }
+
+    /**
+     * Checks if a content operation is applied by this instance.
+     *
+     * @param operation The GenAI operation.
+     * @return {@code true} if the operation is enabled, {@code false} otherwise.
+     */
+    public boolean isEnabled(Operation operation) {
+        return isEnabled(operation.name());
+    }
+
+    /**
+     * Gets the role of this instance.
+     *
+     * @return The sorted comma-separated operation families, or an empty string if every family is enabled.
+     */
+    public String getRole() {
+        return String.join(",", getFamilies(operations));
+    }
+
+    /**
+     * Checks if a family of operations is enabled by a configuration value.
+     *
+     * @param operations The comma-separated operation families, empty to enable every family.
+     * @param family     The operation family.
+     * @return {@code true} if the family is enabled, {@code false} otherwise.
+     */
+    public static boolean isEnabled(String operations, String family) {
+        Set<String> families = getFamilies(operations);
+        return families.isEmpty() || families.contains(family);
+    }
+
+    /**
+     * Parses a configuration value listing operation families.
+     *
+     * @param operations The comma-separated operation families.
+     * @return The sorted families, empty if every family is enabled.
+     */
+    static Set<String> getFamilies(String operations) {
+        if (operations == null || operations.isBlank()) {
+            return Collections.emptySet();
+        }
+        return Arrays.stream(operations.split(","))
+                .map(family -> family.trim().toUpperCase(Locale.ROOT))
+                .filter(family -> !family.isEmpty())
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+}
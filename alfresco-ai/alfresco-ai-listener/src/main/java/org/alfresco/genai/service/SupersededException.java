@@ -0,0 +1,20 @@
+package org.alfresco.genai.service;
+
+import java.io.IOException;
+
+/**
+ * The {@code SupersededException} is thrown when a request to the GenAI service is aborted or its result discarded
+ * because newer content of the node has arrived while the request was in progress.
+ */
+public class SupersededException extends IOException {
+
+    /**
+     * Creates the exception for the node whose content has changed.
+     *
+     * @param uuid The unique identifier of the node.
+     */
+    public SupersededException(String uuid) {
+        super("GenAI request for node " + uuid + " has been superseded by newer content");
+    }
+
+}
@@ -0,0 +1,155 @@
+package org.alfresco.genai.service;
+
+import jakarta.annotation.PostConstruct;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.EventType;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.alfresco.event.sdk.model.v1.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code UpdateLedger} class is a Spring service recording the properties and aspects recently written by the
+ * listener on every node. Node update events are delivered for the listener's own writes too, so handlers use this
+ * ledger to recognise those events and drop them before requesting the repository or the GenAI service again.
+ *
+ * <p>An update event is considered an echo of the listener's own write when it arrives within the configured window,
+ * doesn't change the content nor remove aspects, and only changes properties and adds aspects written by the listener.
+ */
+@Service
+public class UpdateLedger {
+
+    static final Logger LOG = LoggerFactory.getLogger(UpdateLedger.class);
+
+    /**
+     * Properties changed by the repository itself when a node is updated.
+     */
+    static final Set<String> SYSTEM_PROPERTIES = Set.of("cm:versionLabel", "cm:versionType");
+
+    /**
+     * Time in milliseconds an own write is remembered to recognise the events it produces, obtained from
+     * configuration.
+     */
+    @Value("${content.service.update.echo.window}")
+    long echoWindow;
+
+    /**
+     * Maximum number of nodes kept in memory obtained from configuration.
+     */
+    @Value("${content.service.node.cache.size}")
+    int nodeCacheSize;
+
+    /**
+     * Recent writes by node, evicting the least recently used nodes.
+     */
+    private Map<String, OwnWrite> ledger;
+
+    /**
+     * Initializes the bounded ledger.
+     */
+    @PostConstruct
+    public void init() {
+        ledger = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, OwnWrite> eldest) {
+                return size() > nodeCacheSize;
+            }
+        });
+    }
+
+    /**
+     * Records a write of the listener on a node. It must be recorded before sending the request, as the event may be
+     * received before the response.
+     *
+     * @param uuid       The unique identifier of the node.
+     * @param properties The names of the properties written.
+     * @param aspects    The aspects added by the write.
+     */
+    public void record(String uuid, Collection<String> properties, Collection<String> aspects) {
+        long now = System.currentTimeMillis();
+        ledger.compute(uuid, (key, ownWrite) -> {
+            if (ownWrite == null || ownWrite.expiresAt < now) {
+                ownWrite = new OwnWrite();
+            }
+            ownWrite.properties.addAll(properties);
+            ownWrite.aspects.addAll(aspects);
+            ownWrite.expiresAt = now + echoWindow;
+            return ownWrite;
+        });
+    }
+
+    /**
+     * Checks if a node update event has been produced by a recent write of the listener.
+     *
+     * @param repoEvent The event containing information about the node.
+     * @return {@code true} if the event only reflects the listener's own write, {@code false} otherwise.
+     */
+    public boolean isOwnUpdate(RepoEvent<DataAttributes<Resource>> repoEvent) {
+
+        if (!EventType.NODE_UPDATED.getType().equals(repoEvent.getType()) ||
+                !(repoEvent.getData().getResourceBefore() instanceof NodeResource before)) {
+            return false;
+        }
+        NodeResource nodeResource = (NodeResource) repoEvent.getData().getResource();
+
+        OwnWrite ownWrite = ledger.get(nodeResource.getId());
+        if (ownWrite == null || ownWrite.expiresAt < System.currentTimeMillis() || before.getContent() != null) {
+            return false;
+        }
+
+        if (before.getAspectNames() != null) {
+            Set<String> aspectNames = nodeResource.getAspectNames() == null ? Set.of() : nodeResource.getAspectNames();
+            Set<String> addedAspects = new HashSet<>(aspectNames);
+            addedAspects.removeAll(before.getAspectNames());
+            if (!aspectNames.containsAll(before.getAspectNames()) || !ownWrite.aspects.containsAll(addedAspects)) {
+                return false;
+            }
+        }
+
+        if (before.getProperties() != null) {
+            for (String property : before.getProperties().keySet()) {
+                if (!ownWrite.properties.contains(property) && !SYSTEM_PROPERTIES.contains(property)) {
+                    return false;
+                }
+            }
+        }
+
+        LOG.debug("Update event of node {} has been produced by the listener, it is ignored", nodeResource.getId());
+        return true;
+
+    }
+
+    /**
+     * Properties and aspects recently written to a node.
+     */
+    private static class OwnWrite {
+
+        /**
+         * Names of the properties written.
+         */
+        final Set<String> properties = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Aspects added.
+         */
+        final Set<String> aspects = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Time in milliseconds when the write is forgotten.
+         */
+        volatile long expiresAt;
+
+    }
+
+}
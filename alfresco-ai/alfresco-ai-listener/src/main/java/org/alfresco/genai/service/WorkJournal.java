@@ -0,0 +1,339 @@
+package org.alfresco.genai.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.alfresco.genai.model.WorkItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * The {@code WorkJournal} class is a Spring service keeping a local journal of the GenAI work accepted by the listener,
+ * so work in progress is not lost when the listener restarts: events have already been consumed from the broker, and
+ * nothing would trigger that work again until the next change of the node.
+ *
+ * <p>The journal is an append-only memory-mapped file, so every record is kept by the operating system even if the
+ * process is killed. Accepted work is recorded with a {@code +} line and finished work with a {@code -} line. When the
+ * file is full, the unfinished work is written to a new file that atomically replaces the journal, so a crash during
+ * the compaction leaves the previous journal intact. The new file is grown when the unfinished work would fill more
+ * than half of it. On startup, unfinished work is replayed by the runner registered for its type.
+ *
+ * <p>The journal also tells the time of the latest event whose work can't be lost anymore, used as the high-water mark
+ * of the {@link CatchUpService}. Recorded work is safe as soon as it is accepted, but when the journal is disabled,
+ * work waiting or running in the listener is only safe once finished.
+ */
+@Service
+public class WorkJournal {
+
+    static final Logger LOG = LoggerFactory.getLogger(WorkJournal.class);
+
+    /**
+     * Separator of the fields of a record.
+     */
+    static final String SEPARATOR = "\t";
+
+    /**
+     * Suffix of the file the journal is compacted to before replacing the journal.
+     */
+    static final String COMPACTION_SUFFIX = ".tmp";
+
+    /**
+     * File to keep the journal obtained from configuration, an empty value disables the journal.
+     */
+    @Value("${content.service.journal.file}")
+    String journalFile;
+
+    /**
+     * Initial size in bytes of the journal file obtained from configuration.
+     */
+    @Value("${content.service.journal.size}")
+    int journalSize;
+
+    /**
+     * Memory-mapped journal file.
+     */
+    private MappedByteBuffer buffer;
+
+    /**
+     * Unfinished work by key, in the order it was accepted.
+     */
+    private final Map<String, WorkItem> unfinished = new LinkedHashMap<>();
+
+    /**
+     * Time in milliseconds of the latest event whose work has been accepted.
+     */
+    private long acceptedVersion;
+
+    /**
+     * Runners replaying unfinished work by type.
+     */
+    private final Map<String, Consumer<WorkItem>> runners = new ConcurrentHashMap<>();
+
+    /**
+     * Maps the journal file, creating its folder if required, and reads the unfinished work recorded before the last
+     * stop. A compaction interrupted before replacing the journal is discarded, as the journal still includes its work.
+     *
+     * @throws IOException If the journal file can't be created or mapped.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        if (journalFile == null || journalFile.isBlank()) {
+            return;
+        }
+        Files.createDirectories(Path.of(journalFile).toAbsolutePath().getParent());
+        Files.deleteIfExists(Path.of(journalFile + COMPACTION_SUFFIX));
+        try (FileChannel channel = FileChannel.open(Path.of(journalFile),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(journalSize, channel.size()));
+        }
+        int start = 0;
+        while (buffer.position() < buffer.limit() && buffer.get() != 0) {
+            if (buffer.get(buffer.position() - 1) == '\n') {
+                byte[] line = new byte[buffer.position() - 1 - start];
+                buffer.get(start, line);
+                read(new String(line, StandardCharsets.UTF_8));
+                start = buffer.position();
+            }
+        }
+        buffer.position(start);
+        LOG.info("Work journal {} has {} unfinished work items", journalFile, unfinished.size());
+    }
+
+    /**
+     * Writes the journal to disk before the application stops.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (buffer != null) {
+            synchronized (this) {
+                buffer.force();
+            }
+        }
+    }
+
+    /**
+     * Registers the runner replaying unfinished work of a type. Only the first runner registered for a type is kept.
+     *
+     * @param type   The type of work.
+     * @param runner The runner submitting the work again.
+     */
+    public void register(String type, Consumer<WorkItem> runner) {
+        runners.putIfAbsent(type, runner);
+    }
+
+    /**
+     * Replays the unfinished work once every handler is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void replay() {
+        List<WorkItem> workItems;
+        synchronized (this) {
+            workItems = new ArrayList<>(unfinished.values());
+        }
+        for (WorkItem workItem : workItems) {
+            Consumer<WorkItem> runner = runners.get(workItem.getType());
+            if (runner == null) {
+                LOG.warn("Work {} can't be replayed, no runner is registered for its type", workItem.getKey());
+                continue;
+            }
+            LOG.info("Replaying unfinished work {}", workItem.getKey());
+            runner.accept(workItem);
+        }
+    }
+
+    /**
+     * Records work again and submits it to the runner registered for its type, as when it was accepted.
+     *
+     * @param workItem The work to be run again.
+     */
+    public void resubmit(WorkItem workItem) {
+        Consumer<WorkItem> runner = runners.get(workItem.getType());
+        if (runner == null) {
+            LOG.warn("Work {} can't be resubmitted, no runner is registered for its type", workItem.getKey());
+            return;
+        }
+        runner.accept(accept(workItem));
+    }
+
+    /**
+     * Records work accepted by the listener before running it. When the work can't be recorded, it is not accepted,
+     * so the event that triggered it is rolled back and redelivered later.
+     *
+     * @param workItem The accepted work.
+     * @return The same work item, for chaining.
+     * @throws UncheckedIOException If the journal can't be compacted to record the work.
+     */
+    public WorkItem accept(WorkItem workItem) {
+        synchronized (this) {
+            if (buffer != null) {
+                try {
+                    append(format("+", workItem));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Work " + workItem.getKey() + " can't be recorded in " + journalFile, e);
+                }
+            }
+            unfinished.put(workItem.getKey(), workItem);
+            acceptedVersion = Math.max(acceptedVersion, workItem.getVersion());
+        }
+        return workItem;
+    }
+
+    /**
+     * Records work finished by the listener, either successfully or not. Newer work accepted with the same key is
+     * still unfinished.
+     *
+     * @param workItem The finished work.
+     */
+    public void complete(WorkItem workItem) {
+        synchronized (this) {
+            WorkItem latest = unfinished.get(workItem.getKey());
+            if (latest != null && latest.getVersion() <= workItem.getVersion()) {
+                unfinished.remove(workItem.getKey());
+            }
+            if (buffer != null) {
+                try {
+                    append(format("-", workItem));
+                } catch (IOException e) {
+                    LOG.warn("Finished work {} can't be recorded in {}, it will be replayed on restart",
+                            workItem.getKey(), journalFile, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the time of the latest event whose work can't be lost if the listener stops. Work recorded in the journal
+     * is replayed on restart, so it is safe once accepted. When the journal is disabled, the time is held back before
+     * the oldest unfinished work, which would be lost.
+     *
+     * @return The time in milliseconds of the event, 0 if no work has been accepted yet.
+     */
+    public synchronized long getSafeVersion() {
+        long safeVersion = acceptedVersion;
+        if (buffer == null) {
+            for (WorkItem workItem : unfinished.values()) {
+                safeVersion = Math.min(safeVersion, workItem.getVersion() - 1);
+            }
+        }
+        return safeVersion;
+    }
+
+    /**
+     * Appends a record to the journal, compacting the journal to the unfinished work when the record doesn't fit.
+     *
+     * @param record The record including the line separator.
+     * @throws IOException If the journal can't be compacted.
+     */
+    private void append(String record) throws IOException {
+        byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+        if (buffer.remaining() < bytes.length) {
+            compact(bytes.length);
+        }
+        buffer.put(bytes);
+    }
+
+    /**
+     * Writes the unfinished work to a new journal file and atomically replaces the journal with it. The new file keeps
+     * the size of the journal, doubled as many times as required for the unfinished work and the next record to fill
+     * no more than half of it.
+     *
+     * @param recordLength The length in bytes of the record to be appended after the compaction.
+     * @throws IOException If the new journal file can't be written or can't replace the journal.
+     */
+    private void compact(int recordLength) throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        long length = recordLength;
+        for (WorkItem workItem : unfinished.values()) {
+            byte[] bytes = format("+", workItem).getBytes(StandardCharsets.UTF_8);
+            records.add(bytes);
+            length += bytes.length;
+        }
+        long size = buffer.capacity();
+        while (size < 2 * length && size < Integer.MAX_VALUE) {
+            size = Math.min(2 * size, Integer.MAX_VALUE);
+        }
+        if (size > buffer.capacity()) {
+            LOG.info("Work journal {} is growing to {} bytes for {} unfinished work items", journalFile, size, records.size());
+        }
+        Path compactionFile = Path.of(journalFile + COMPACTION_SUFFIX);
+        MappedByteBuffer compacted;
+        try (FileChannel channel = FileChannel.open(compactionFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            compacted = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        records.forEach(compacted::put);
+        compacted.force();
+        Files.move(compactionFile, Path.of(journalFile), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        buffer = compacted;
+        LOG.debug("Work journal {} has been compacted to {} unfinished work items", journalFile, records.size());
+    }
+
+    /**
+     * Formats a record of the journal.
+     *
+     * @param marker   {@code +} for accepted work or {@code -} for finished work.
+     * @param workItem The work.
+     * @return The record including the line separator.
+     */
+    private String format(String marker, WorkItem workItem) {
+        return String.join(SEPARATOR,
+                marker,
+                workItem.getType(),
+                workItem.getUuid(),
+                String.valueOf(workItem.getVersion()),
+                workItem.getMimeType() == null ? "" : workItem.getMimeType()) + "\n";
+    }
+
+    /**
+     * Reads a record of the journal, updating the unfinished work.
+     *
+     * @param record The record without the line separator.
+     */
+    private void read(String record) {
+        String[] fields = record.split(SEPARATOR, -1);
+        if (fields.length != 5) {
+            LOG.warn("Invalid record in work journal {}: {}", journalFile, record);
+            return;
+        }
+        WorkItem workItem;
+        try {
+            workItem = new WorkItem()
+                    .type(fields[1])
+                    .uuid(fields[2])
+                    .version(Long.parseLong(fields[3]))
+                    .mimeType(fields[4].isEmpty() ? null : fields[4]);
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid record in work journal {}: {}", journalFile, record);
+            return;
+        }
+        if ("+".equals(fields[0])) {
+            unfinished.put(workItem.getKey(), workItem);
+        } else {
+            WorkItem latest = unfinished.get(workItem.getKey());
+            if (latest != null && latest.getVersion() <= workItem.getVersion()) {
+                unfinished.remove(workItem.getKey());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+package org.alfresco.genai.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The {@code WorkerPool} class is a Spring service running the GenAI work of the listener in a bounded pool of
+ * threads, so the thread receiving events from ActiveMQ is not blocked by a slow GenAI request and several documents
+ * are processed at the same time.
+ *
+ * <p>The pool is made of lanes, each of them a single thread with its own queue. Work on a node is always run by the
+ * lane obtained by hashing the node id, so work on the same node is run in the order it was submitted while different
+ * nodes are processed in parallel, without any lock shared by the lanes.
+ *
+ * <p>The number of accepted work items, running or queued, is bounded. When the limit is reached, the thread handing
+ * off work waits until a work item finishes: as that is the thread receiving events, consumption from the broker is
+ * paused while the pool is full and resumed once it drains, and messages wait in the broker instead of in memory.
+ */
+@Service
+public class WorkerPool {
+
+    static final Logger LOG = LoggerFactory.getLogger(WorkerPool.class);
+
+    /**
+     * Number of lanes running GenAI work obtained from configuration.
+     */
+    @Value("${content.service.worker.threads}")
+    int workerThreads;
+
+    /**
+     * Number of work items waiting for a free thread obtained from configuration.
+     */
+    @Value("${content.service.worker.queue}")
+    int workerQueue;
+
+    /**
+     * Permits for accepted work items, running or queued.
+     */
+    private Semaphore capacity;
+
+    /**
+     * Single thread executors running the work, one per lane.
+     */
+    private ExecutorService[] lanes;
+
+    /**
+     * Initializes the lanes and the capacity of the pool.
+     */
+    @PostConstruct
+    public void init() {
+        capacity = new Semaphore(workerThreads + workerQueue);
+        lanes = new ExecutorService[workerThreads];
+        for (int i = 0; i < lanes.length; i++) {
+            String threadName = "genai-worker-" + (i + 1);
+            lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Stops the pool, interrupting the work in progress.
+     */
+    @PreDestroy
+    public void destroy() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdownNow();
+        }
+    }
+
+    /**
+     * Reserves room for a work item in the pool, waiting until a work item finishes when the pool is full.
+     *
+     * @throws RejectedExecutionException If the thread is interrupted while waiting.
+     */
+    public void acquire() {
+        if (capacity.tryAcquire()) {
+            return;
+        }
+        LOG.info("Worker pool is full, event consumption is paused");
+        try {
+            capacity.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for the worker pool", e);
+        }
+        LOG.info("Worker pool has drained, event consumption is resumed");
+    }
+
+    /**
+     * Checks if some thread of the pool is idle, so background work can be submitted without delaying live events.
+     *
+     * @return {@code true} if fewer work items than threads are running or queued, {@code false} otherwise.
+     */
+    public boolean hasIdleThreads() {
+        return capacity.availablePermits() > workerQueue;
+    }
+
+    /**
+     * Releases the room reserved for a work item that won't be executed.
+     */
+    public void release() {
+        capacity.release();
+    }
+
+    /**
+     * Executes a work item with the room already reserved by {@link #acquire()}, in the lane of the node. The room is
+     * released when the work finishes, and errors are logged, as the work is no longer run by the thread receiving the
+     * event.
+     *
+     * @param uuid The unique identifier of the node the work is applied to.
+     * @param work The work to be run.
+     */
+    public void execute(String uuid, Runnable work) {
+        try {
+            lanes[Math.floorMod(uuid.hashCode(), lanes.length)].execute(() -> {
+                try {
+                    work.run();
+                } catch (RuntimeException e) {
+                    LOG.error("Error running GenAI work", e);
+                } finally {
+                    capacity.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            capacity.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Reserves room for a work item, waiting while the pool is full, and executes it in the lane of the node.
+     *
+     * @param uuid The unique identifier of the node the work is applied to.
+     * @param work The work to be run.
+     */
+    public void submit(String uuid, Runnable work) {
+        acquire();
+        execute(uuid, work);
+    }
+
+}
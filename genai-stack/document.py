@@ -21,6 +21,7 @@ from chains import load_llm
 
 from entitylink import getEntityLinksWikidata
 from entitylink import getEntityLinksDBpedia
+from entitylink import getText
 
 
 load_dotenv(".env")
@@ -68,11 +69,7 @@ app.add_middleware(
 )
 
 def getQa(file: UploadFile):
-    pdf_reader = PdfReader(file.file)
-
-    text = ""
-    for page in pdf_reader.pages:
-        text += page.extract_text()
+    text = getText(file)
 
     text_splitter = RecursiveCharacterTextSplitter(
         chunk_size=1000, chunk_overlap=200, length_function=len
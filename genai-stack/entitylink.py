@@ -1,4 +1,6 @@
+import html
 import json
+import re
 import spacy
 from fastapi import UploadFile
 from PyPDF2 import PdfReader
@@ -24,12 +26,26 @@ aiming to make space more accessible and potentially challenge the
 ISS's monopoly on human space presence.'''
 
 
-def getEntityLinksWikidata(file: UploadFile):
+def getText(file: UploadFile):
+
+    # Plain text, markdown and HTML are sent as they are, without a PDF rendition
+    if file.content_type is not None and file.content_type.startswith("text/"):
+        text = file.file.read().decode("utf-8", errors="replace")
+        if file.content_type == "text/html":
+            text = re.sub(r"(?is)<(script|style).*?</\1>", " ", text)
+            text = html.unescape(re.sub(r"<[^>]+>", " ", text))
+        return text
 
     pdf_reader = PdfReader(file.file)
     text = ""
     for page in pdf_reader.pages:
         text += page.extract_text()
+    return text
+
+
+def getEntityLinksWikidata(file: UploadFile):
+
+    text = getText(file)
 
     nlp = spacy.load('en_core_web_trf')
 
@@ -65,10 +81,7 @@ def getEntityLinksDBpedia(file: UploadFile):
 
     #print(dbpedia_spotlight_url)    
     
-    pdf_reader = PdfReader(file.file)
-    text = ""
-    for page in pdf_reader.pages:
-        text += page.extract_text()
+    text = getText(file)
 
     # load your model as usual
     nlp = spacy.load('en_core_web_trf')